@@ -0,0 +1,205 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.digiarea.jse.AnnotationExpr;
+import com.digiarea.jse.BinaryExpr.BinaryOperator;
+import com.digiarea.jse.BlockStmt;
+import com.digiarea.jse.BodyDeclaration;
+import com.digiarea.jse.ClassOrInterfaceType;
+import com.digiarea.jse.Expression;
+import com.digiarea.jse.MethodDeclaration;
+import com.digiarea.jse.Modifiers;
+import com.digiarea.jse.NodeFacade;
+import com.digiarea.jse.Parameter;
+import com.digiarea.jse.Statement;
+import com.digiarea.jse.Type;
+
+public class AsyncCreate {
+
+	public static final String ASYNC = "Async";
+
+	private static final String JAVA_UTIL_CONCURRENT_COMPLETABLE_FUTURE = "java.util.concurrent.CompletableFuture";
+	private static final String JAVA_UTIL_CONCURRENT_COMPLETION_EXCEPTION = "java.util.concurrent.CompletionException";
+	private static final String JAVA_UTIL_CONCURRENT_EXECUTOR = "java.util.concurrent.Executor";
+	private static final String JAVA_UTIL_FUNCTION_SUPPLIER = "java.util.function.Supplier";
+	private static final String JAVA_UTIL_FUNCTION_FUNCTION = "java.util.function.Function";
+	private static final String JAVA_LANG_EXCEPTION = "java.lang.Exception";
+	private static final String JAVA_LANG_RUNNABLE = "java.lang.Runnable";
+	private static final String JAVA_LANG_OVERRIDE = "java.lang.Override";
+	private static final String JAVAFX_PLATFORM = "javafx.application.Platform";
+	private static final String RUN_LATER = "runLater";
+	private static final String SUPPLY_ASYNC = "supplyAsync";
+	private static final String THEN_APPLY_ASYNC = "thenApplyAsync";
+	private static final String COMPLETED_FUTURE = "completedFuture";
+	private static final String GET = "get";
+	private static final String APPLY = "apply";
+	private static final String EXECUTE = "execute";
+	private static final String EXECUTOR = "executor";
+	private static final String COMMAND = "command";
+	private static final String EXCEPTION = "e";
+
+	private final String method;
+
+	private final String build;
+
+	public AsyncCreate(String methodName) {
+		super();
+		this.method = methodName + ASYNC;
+		this.build = methodName + "$build";
+	}
+
+	public List<Statement> getStatements(String name, String identifier,
+			Statement initializer) {
+		// Root root = create$build(); initialize(null, bundle); return root;
+		List<Statement> statements = new ArrayList<>();
+		statements.add(NodeFacade.ExpressionStmt(NodeFacade
+				.VariableDeclarationExpr(NodeFacade.ClassOrInterfaceType(name),
+						identifier, NodeFacade.MethodCallExpr(build,
+								new ArrayList<Expression>()))));
+		statements.add(initializer);
+		statements.add(NodeFacade.ReturnStmt(NodeFacade.NameExpr(identifier)));
+		return statements;
+	}
+
+	public List<BodyDeclaration> getMembers(String name, String identifier,
+			List<Statement> statements, Statement initializer, String pooled) {
+		List<BodyDeclaration> members = new ArrayList<>();
+		// private Root create$build() throws Exception { ... }
+		MethodDeclaration builder = NodeFacade.MethodDeclaration(
+				Modifiers.PRIVATE, NodeFacade.ClassOrInterfaceType(name),
+				build);
+		builder.setBlock(NodeFacade.BlockStmt(statements));
+		builder.setThrowsList(NodeFacade.NodeList(Arrays.asList(NodeFacade
+				.ClassOrInterfaceType(JAVA_LANG_EXCEPTION))));
+		members.add(builder);
+		// the tree is built on the executor, initialize() and the fields set
+		// so far are handed over to the FX thread through the future
+		// public CompletableFuture<Root> createAsync(Executor executor) {
+		// return CompletableFuture.supplyAsync(new Supplier<Root>() {...},
+		// executor).thenApplyAsync(new Function<Root, Root>() {...},
+		// new Executor() {...});
+		// }
+		List<Statement> body = new ArrayList<>();
+		if (pooled != null) {
+			// if (create$root != null) {
+			// return CompletableFuture.completedFuture(create$root);
+			// }
+			body.add(NodeFacade.IfStmt(NodeFacade.BinaryExpr(
+					NodeFacade.NameExpr(pooled), NodeFacade.NullLiteralExpr(),
+					BinaryOperator.notEquals), NodeFacade.BlockStmt(Arrays
+					.asList((Statement) NodeFacade.ReturnStmt(NodeFacade
+							.MethodCallExpr(NodeFacade
+									.QualifiedNameExpr(JAVA_UTIL_CONCURRENT_COMPLETABLE_FUTURE),
+									null, COMPLETED_FUTURE, Arrays
+											.asList((Expression) NodeFacade
+													.NameExpr(pooled)))))),
+					null));
+		}
+		Expression future = NodeFacade.MethodCallExpr(NodeFacade
+				.QualifiedNameExpr(JAVA_UTIL_CONCURRENT_COMPLETABLE_FUTURE),
+				null, SUPPLY_ASYNC, Arrays.asList(getSupplier(name),
+						NodeFacade.NameExpr(EXECUTOR)));
+		future = NodeFacade.MethodCallExpr(future, null, THEN_APPLY_ASYNC,
+				Arrays.asList(getFunction(name, identifier, initializer),
+						getFxExecutor()));
+		body.add(NodeFacade.ReturnStmt(future));
+		MethodDeclaration async = NodeFacade.MethodDeclaration(
+				Modifiers.PUBLIC, getGenericType(
+						JAVA_UTIL_CONCURRENT_COMPLETABLE_FUTURE, name), method);
+		async.setParameters(NodeFacade.NodeList(Arrays.asList(getParameter(
+				JAVA_UTIL_CONCURRENT_EXECUTOR, EXECUTOR))));
+		async.setBlock(NodeFacade.BlockStmt(body));
+		members.add(async);
+		return members;
+	}
+
+	private Expression getSupplier(String name) {
+		// new Supplier<Root>() {
+		// @Override public Root get() {
+		// try { return create$build(); }
+		// catch (Exception e) { throw new CompletionException(e); }
+		// }
+		// }
+		BlockStmt tryBlock = NodeFacade.BlockStmt(Arrays
+				.asList((Statement) NodeFacade.ReturnStmt(NodeFacade
+						.MethodCallExpr(build, new ArrayList<Expression>()))));
+		BlockStmt catchBlock = NodeFacade.BlockStmt(Arrays
+				.asList((Statement) NodeFacade.ThrowStmt(NodeFacade
+						.ObjectCreationExpr(NodeFacade
+								.ClassOrInterfaceType(JAVA_UTIL_CONCURRENT_COMPLETION_EXCEPTION),
+								Arrays.asList((Expression) NodeFacade
+										.NameExpr(EXCEPTION))))));
+		return getAnonymous(getGenericType(JAVA_UTIL_FUNCTION_SUPPLIER, name),
+				NodeFacade.ClassOrInterfaceType(name), GET,
+				new ArrayList<Parameter>(), Arrays
+						.asList((Statement) NodeFacade.TryStmt(tryBlock, Arrays
+								.asList(NodeFacade.CatchClause(getParameter(
+										JAVA_LANG_EXCEPTION, EXCEPTION),
+										catchBlock)), null)));
+	}
+
+	private Expression getFunction(String name, String identifier,
+			Statement initializer) {
+		// new Function<Root, Root>() {
+		// @Override public Root apply(Root root) {
+		// initialize(null, bundle); return root;
+		// }
+		// }
+		return getAnonymous(getGenericType(JAVA_UTIL_FUNCTION_FUNCTION, name,
+				name), NodeFacade.ClassOrInterfaceType(name), APPLY, Arrays
+				.asList(getParameter(name, identifier)), Arrays.asList(
+				initializer,
+				NodeFacade.ReturnStmt(NodeFacade.NameExpr(identifier))));
+	}
+
+	private Expression getFxExecutor() {
+		// new Executor() {
+		// @Override public void execute(Runnable command) {
+		// Platform.runLater(command);
+		// }
+		// }
+		return getAnonymous(NodeFacade
+				.ClassOrInterfaceType(JAVA_UTIL_CONCURRENT_EXECUTOR),
+				NodeFacade.VoidType(), EXECUTE, Arrays.asList(getParameter(
+						JAVA_LANG_RUNNABLE, COMMAND)), Arrays
+						.asList((Statement) NodeFacade.ExpressionStmt(NodeFacade
+								.MethodCallExpr(NodeFacade
+										.QualifiedNameExpr(JAVAFX_PLATFORM),
+										null, RUN_LATER, Arrays
+												.asList((Expression) NodeFacade
+														.NameExpr(COMMAND))))));
+	}
+
+	private Expression getAnonymous(ClassOrInterfaceType type,
+			Type returnType, String name, List<Parameter> parameters,
+			List<Statement> statements) {
+		MethodDeclaration method = NodeFacade.MethodDeclaration(
+				Modifiers.PUBLIC, null, returnType, name, parameters, null,
+				null, NodeFacade.BlockStmt(statements), null, Arrays
+						.asList((AnnotationExpr) NodeFacade.MarkerAnnotationExpr(NodeFacade
+								.QualifiedNameExpr(JAVA_LANG_OVERRIDE))));
+		return NodeFacade.ObjectCreationExpr(null, type, null, null,
+				Arrays.asList((BodyDeclaration) method));
+	}
+
+	private Parameter getParameter(String type, String name) {
+		return NodeFacade.Parameter(0, NodeFacade.ReferenceType(
+				NodeFacade.ClassOrInterfaceType(type), 0), null, NodeFacade
+				.VariableDeclaratorId(name, null), null);
+	}
+
+	private ClassOrInterfaceType getGenericType(String name,
+			String... arguments) {
+		List<Type> types = new ArrayList<>();
+		for (String argument : arguments) {
+			types.add(NodeFacade.ReferenceType(
+					NodeFacade.ClassOrInterfaceType(argument), 0));
+		}
+		return NodeFacade.ClassOrInterfaceType(null,
+				NodeFacade.QualifiedNameExpr(name), types);
+	}
+
+}
@@ -0,0 +1,105 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.digiarea.jse.CompilationUnit;
+import com.digiarea.jse.ImportDeclaration;
+import com.digiarea.jse.NameExpr;
+import com.digiarea.jse.NodeFacade;
+import com.digiarea.jse.Project;
+import com.digiarea.jse.QualifiedNameExpr;
+import com.digiarea.jse.TypeDeclaration;
+import com.digiarea.jse.utils.NodeUtils;
+
+public class CompilationUnitIndex {
+
+	private final Project project;
+
+	private final Map<String, CompilationUnit> units = new HashMap<>();
+
+	private final Map<CompilationUnit, Set<String>> imports =
+			new IdentityHashMap<>();
+
+	public CompilationUnitIndex(Project project) {
+		super();
+		this.project = project;
+		if (project.getCompilationUnits() != null) {
+			for (CompilationUnit cu : project.getCompilationUnits()) {
+				if (cu != null && cu.getTypes() != null) {
+					String prefix = getPrefix(cu);
+					for (TypeDeclaration type : cu.getTypes()) {
+						if (type != null) {
+							units.put(prefix + type.getName(), cu);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	public CompilationUnit getCompilationUnit(String qualifiedName)
+			throws Exception {
+		CompilationUnit cu = units.get(qualifiedName);
+		if (cu == null) {
+			// nested types are not indexed
+			cu = NodeUtils.selectCompilationUnit(project, qualifiedName);
+			if (cu != null) {
+				units.put(qualifiedName, cu);
+			}
+		}
+		return cu;
+	}
+
+	public void addImports(CompilationUnit cu, List<ImportDeclaration> added) {
+		List<ImportDeclaration> list = cu.getImports();
+		if (list == null) {
+			list = new ArrayList<>();
+			cu.setImports(NodeFacade.NodeList(list));
+		}
+		Set<String> keys = imports.get(cu);
+		if (keys == null) {
+			keys = new HashSet<>();
+			for (ImportDeclaration declaration : list) {
+				keys.add(getKey(declaration));
+			}
+			imports.put(cu, keys);
+		}
+		for (ImportDeclaration declaration : added) {
+			if (keys.add(getKey(declaration))) {
+				list.add(declaration);
+			}
+		}
+	}
+
+	private static String getKey(ImportDeclaration declaration) {
+		StringBuilder builder = new StringBuilder();
+		if (declaration.isStatic()) {
+			builder.append("static ");
+		}
+		builder.append(getName(declaration.getName()));
+		if (declaration.isAsterisk()) {
+			builder.append(".*");
+		}
+		return builder.toString();
+	}
+
+	static String getPrefix(CompilationUnit cu) {
+		return cu.getPackage() != null ? getName(cu.getPackage().getName())
+				+ "." : "";
+	}
+
+	static String getName(NameExpr name) {
+		if (name instanceof QualifiedNameExpr) {
+			return getName(((QualifiedNameExpr) name).getQualifier()) + "."
+					+ name.getName();
+		}
+		return name.getName();
+	}
+
+}
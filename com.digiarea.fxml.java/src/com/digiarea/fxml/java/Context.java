@@ -1,46 +1,268 @@
 package com.digiarea.fxml.java;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.digiarea.common.utils.StringUtils;
+import com.digiarea.fxml.Attribute;
+import com.digiarea.fxml.Element;
+import com.digiarea.fxml.Fxml;
+import com.digiarea.fxml.java.FoldIndex.Fold;
+import com.digiarea.jse.BodyDeclaration;
 import com.digiarea.jse.ClassOrInterfaceType;
-import com.digiarea.jse.NameExpr;
+import com.digiarea.jse.Expression;
+import com.digiarea.jse.ImportDeclaration;
 import com.digiarea.jse.NodeFacade;
+import com.digiarea.jse.Statement;
 
 public class Context {
 
-	private List<String> names = new ArrayList<>();
+	public Context() {
+		super();
+	}
+
+	private Context(Map<String, String> controllers,
+			Map<String, ClassOrInterfaceType> factories,
+			Map<String, String> factoryNames, Map<String, Fxml> documents,
+			Map<String, Set<String>> includers) {
+		super();
+		this.controllers = controllers;
+		this.factories = factories;
+		this.factoryNames = factoryNames;
+		this.documents = documents;
+		this.includers = includers;
+	}
+
+	public Context fork() {
+		// shares the scanned controllers, factories and documents only
+		return new Context(controllers, factories, factoryNames, documents,
+				includers);
+	}
+
+	private Set<String> names = new HashSet<>();
+
+	private Map<String, Integer> suffixes = new HashMap<>();
 
 	public String getNewIdentifier(String name) {
-		NameExpr nameExpr = NodeFacade.NameExpr(name);
-		String newId = StringUtils.firstToLower(nameExpr.getName());
-		int i = 1;
-		String tempId = newId;
-		while (names.contains(tempId)) {
-			tempId = newId + i;
+		String newId = StringUtils.firstToLower(name);
+		// suffixes below the counter are already taken, so the first free
+		// identifier is the same as probing from 1 every time
+		Integer suffix = suffixes.get(newId);
+		int i = suffix == null ? 0 : suffix;
+		String tempId = i == 0 ? newId : newId + i;
+		while (!names.add(tempId)) {
 			i++;
+			tempId = newId + i;
 		}
-		names.add(tempId);
+		suffixes.put(newId, i + 1);
 		return tempId;
 	}
 
 	public void clear() {
 		names.clear();
+		suffixes.clear();
+		members.clear();
+		methods = 0;
+		constants.clear();
+		strings.clear();
+		handlers.clear();
+		inlined.clear();
+		copies.clear();
+		imports.clear();
+		elements = 0;
+		attributes = 0;
+		resets.clear();
+		folds.clear();
+		parameters = null;
+		sink.clear();
+	}
+
+	private StatementSink sink = new StatementSink();
+
+	public StatementSink getSink() {
+		return sink;
+	}
+
+	private Map<Element, Fold> folds = new IdentityHashMap<>();
+
+	public Fold getFold(Element element) {
+		return folds.get(element);
+	}
+
+	public void putFold(Element element, Fold fold) {
+		folds.put(element, fold);
+	}
+
+	private Map<Attribute, Expression> parameters = null;
+
+	public Expression getParameter(Attribute attribute) {
+		return parameters != null ? parameters.get(attribute) : null;
+	}
+
+	public Map<Attribute, Expression> setParameters(
+			Map<Attribute, Expression> parameters) {
+		Map<Attribute, Expression> previous = this.parameters;
+		this.parameters = parameters;
+		return previous;
+	}
+
+	private List<Statement> resets = new ArrayList<>();
+
+	public List<Statement> getResets() {
+		return resets;
+	}
+
+	public void addReset(Statement statement) {
+		resets.add(statement);
+	}
+
+	private int elements = 0;
+
+	private int attributes = 0;
+
+	public void countElement() {
+		elements++;
+	}
+
+	public int getElementCount() {
+		return elements;
+	}
+
+	public void countAttribute() {
+		attributes++;
+	}
+
+	public int getAttributeCount() {
+		return attributes;
+	}
+
+	private Map<String, String> inlined = new HashMap<>();
+
+	public String getInlined(String source) {
+		return inlined.get(source);
+	}
+
+	public String putInlined(String source, String methodName) {
+		return inlined.put(source, methodName);
+	}
+
+	// by source element, inlined documents may reuse the fx:ids
+	private Map<Element, String> copies = new IdentityHashMap<>();
+
+	public String getCopy(Element source) {
+		return copies.get(source);
+	}
+
+	public String putCopy(Element source, String methodName) {
+		return copies.put(source, methodName);
+	}
+
+	private boolean inlining = false;
+
+	public boolean isInlining() {
+		return inlining;
+	}
+
+	public void setInlining(boolean inlining) {
+		this.inlining = inlining;
+	}
+
+	private List<ImportDeclaration> imports = new ArrayList<>();
+
+	public List<ImportDeclaration> getImports() {
+		return imports;
+	}
+
+	public void addImport(ImportDeclaration declaration) {
+		imports.add(declaration);
+	}
+
+	private Map<String, Integer> strings = new LinkedHashMap<>();
+
+	public int getStringIndex(String key) {
+		Integer index = strings.get(key);
+		if (index == null) {
+			index = strings.size();
+			strings.put(key, index);
+		}
+		return index;
+	}
+
+	public Collection<String> getStrings() {
+		return strings.keySet();
+	}
+
+	private Map<String, Integer> handlers = new LinkedHashMap<>();
+
+	public int getHandlerIndex(String name) {
+		Integer index = handlers.get(name);
+		if (index == null) {
+			index = handlers.size();
+			handlers.put(name, index);
+		}
+		return index;
+	}
+
+	public List<String> getHandlers() {
+		return new ArrayList<>(handlers.keySet());
+	}
+
+	private Map<String, String> constants = new HashMap<>();
+
+	public String getConstant(String key) {
+		return constants.get(key);
+	}
+
+	public String putConstant(String key, String value) {
+		return constants.put(key, value);
+	}
+
+	public int getConstantCount() {
+		return constants.size();
+	}
+
+	private List<BodyDeclaration> members = new ArrayList<>();
+
+	private int methods = 0;
+
+	public String getNewMethodName(String name) {
+		methods++;
+		return name + "$" + methods;
+	}
+
+	public List<BodyDeclaration> getMembers() {
+		return members;
+	}
+
+	public void addMember(BodyDeclaration member) {
+		members.add(member);
 	}
 
 	private Map<String, String> controllers = new HashMap<>();
 
 	private Map<String, ClassOrInterfaceType> factories = new HashMap<>();
 
+	private Map<String, String> factoryNames = new HashMap<>();
+
 	public boolean containsFactory(Object key) {
 		return factories.containsKey(key);
 	}
 
 	public ClassOrInterfaceType getFactory(Object key) {
-		return factories.get(key);
+		// every use gets its own node, documents translated in parallel must
+		// not share one in their trees
+		String name = factoryNames.get(key);
+		return name != null ? NodeFacade.ClassOrInterfaceType(name)
+				: factories.get(key);
 	}
 
 	public ClassOrInterfaceType putFactory(String key,
@@ -48,6 +270,23 @@ public class Context {
 		return factories.put(key, value);
 	}
 
+	public ClassOrInterfaceType putFactory(String key, String name) {
+		factoryNames.put(key, name);
+		return factories.put(key, NodeFacade.ClassOrInterfaceType(name));
+	}
+
+	public String getFactoryName(String key) {
+		return factoryNames.get(key);
+	}
+
+	public Map<String, String> getFactoryNames() {
+		return Collections.unmodifiableMap(factoryNames);
+	}
+
+	public Map<String, String> getControllers() {
+		return Collections.unmodifiableMap(controllers);
+	}
+
 	public String getController(String key) {
 		return controllers.get(key);
 	}
@@ -60,6 +299,46 @@ public class Context {
 		return controllers.put(key, value);
 	}
 
+	private Map<String, Fxml> documents = new HashMap<>();
+
+	public Fxml getDocument(String key) {
+		return documents.get(key);
+	}
+
+	public Fxml putDocument(String key, Fxml value) {
+		return documents.put(key, value);
+	}
+
+	// includers by included source, edges are only added while scanning
+	private Map<String, Set<String>> includers = new HashMap<>();
+
+	public Set<String> getIncluders(String source) {
+		Set<String> result = includers.get(source);
+		return result != null ? Collections.unmodifiableSet(result)
+				: Collections.<String> emptySet();
+	}
+
+	public void putIncluder(String source, String includer) {
+		Set<String> result = includers.get(source);
+		if (result == null) {
+			result = new HashSet<>();
+			includers.put(source, result);
+		}
+		result.add(includer);
+	}
+
+	// directory of the document being generated, @ locations are resolved
+	// against it
+	private Path location = null;
+
+	public Path getLocation() {
+		return location;
+	}
+
+	public void setLocation(Path location) {
+		this.location = location;
+	}
+
 	private String fxController = null;
 
 	public String getFxController() {
@@ -1,29 +1,182 @@
 package com.digiarea.fxml.java;
 
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import com.digiarea.fxml.java.TranslationListener.Phase;
+import com.digiarea.jse.BodyDeclaration;
+import com.digiarea.jse.CompilationUnit;
+import com.digiarea.jse.FieldDeclaration;
 import com.digiarea.jse.MethodDeclaration;
 import com.digiarea.jse.Node;
+import com.digiarea.jse.Project;
+import com.digiarea.jse.TypeDeclaration;
+import com.digiarea.jse.VariableDeclarator;
 import com.digiarea.jse.arrow.Context;
 import com.digiarea.jse.arrow.Identity;
 
 public class ControllerCleaner extends Identity {
 
-	private List<String> names = null;
+	private Set<String> names = null;
+
+	// method names by controller, null cleans every compilation unit
+	private Map<String, Set<String>> controllers = null;
+
+	private TranslationListener listener = null;
 
 	public ControllerCleaner(List<String> names) {
 		super();
-		this.names = names;
+		this.names = new HashSet<>(names);
+	}
+
+	public ControllerCleaner(Map<String, Set<String>> controllers) {
+		super();
+		this.controllers = controllers;
+	}
+
+	public TranslationListener getListener() {
+		return listener;
+	}
+
+	public void setListener(TranslationListener listener) {
+		this.listener = listener;
+	}
+
+	@Override
+	public Node visit(Project n, Context ctx) throws Exception {
+		if (controllers == null) {
+			return super.visit(n, ctx);
+		}
+		// the generated members of the controllers are removed in place, so
+		// updaters of a hierarchy built before still point into the project
+		List<CompilationUnit> units = n.getCompilationUnits();
+		if (units != null) {
+			for (CompilationUnit cu : units) {
+				if (cu != null) {
+					cu.accept(this, ctx);
+				}
+			}
+		}
+		return n;
+	}
+
+	@Override
+	public Node visit(CompilationUnit n, Context ctx) throws Exception {
+		String name = null;
+		if (n.getTypes() != null && !n.getTypes().isEmpty()) {
+			name = n.getTypes().get(0).getName();
+		}
+		Set<String> previous = names;
+		if (controllers != null) {
+			names = getNames(n);
+			if (names == null) {
+				names = previous;
+				return n;
+			}
+		}
+		PhaseTimer timer = PhaseTimer.start(listener, Phase.CLEAN, name);
+		try {
+			if (controllers != null) {
+				remove(n);
+				return n;
+			}
+			return super.visit(n, ctx);
+		} finally {
+			PhaseTimer.stop(timer);
+			names = previous;
+		}
+	}
+
+	private void remove(CompilationUnit n) {
+		for (TypeDeclaration type : n.getTypes()) {
+			if (type != null && type.getMembers() != null) {
+				Iterator<BodyDeclaration> members = type.getMembers()
+						.iterator();
+				while (members.hasNext()) {
+					BodyDeclaration member = members.next();
+					if ((member instanceof MethodDeclaration && isGenerated((MethodDeclaration) member))
+							|| (member instanceof FieldDeclaration && isGenerated((FieldDeclaration) member))) {
+						members.remove();
+					}
+				}
+			}
+		}
+	}
+
+	private Set<String> getNames(CompilationUnit n) {
+		Set<String> result = null;
+		if (n.getTypes() != null) {
+			String prefix = CompilationUnitIndex.getPrefix(n);
+			for (TypeDeclaration type : n.getTypes()) {
+				if (type != null) {
+					Set<String> methods = controllers.get(prefix
+							+ type.getName());
+					if (methods != null) {
+						if (result == null) {
+							result = new HashSet<>();
+						}
+						result.addAll(methods);
+					}
+				}
+			}
+		}
+		return result;
 	}
 
 	@Override
 	public Node visit(MethodDeclaration n, Context ctx) throws Exception {
-		if (names.contains(n.getName())
-				&& (n.getParameters() == null || n.getParameters().isEmpty())) {
+		if (isGenerated(n)) {
+			return null;
+		} else {
+			return super.visit(n, ctx);
+		}
+	}
+
+	@Override
+	public Node visit(FieldDeclaration n, Context ctx) throws Exception {
+		if (isGenerated(n)) {
 			return null;
 		} else {
 			return super.visit(n, ctx);
 		}
 	}
 
+	private boolean isGenerated(MethodDeclaration n) {
+		String name = n.getName();
+		if (isGenerated(name)) {
+			return true;
+		}
+		// asynchronous variants, e.g. createAsync(Executor)
+		if (name.endsWith(AsyncCreate.ASYNC)
+				&& names.contains(name.substring(0, name.length()
+						- AsyncCreate.ASYNC.length()))
+				&& n.getParameters() != null && n.getParameters().size() == 1) {
+			return true;
+		}
+		return names.contains(name)
+				&& (n.getParameters() == null || n.getParameters().isEmpty());
+	}
+
+	private boolean isGenerated(FieldDeclaration n) {
+		if (n.getVariables() == null || n.getVariables().isEmpty()) {
+			return false;
+		}
+		for (VariableDeclarator variable : n.getVariables()) {
+			if (!isGenerated(variable.getId().getName())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isGenerated(String name) {
+		// members generated for a method, e.g. create$1 or CREATE$INSETS1
+		int index = name.indexOf('$');
+		return index > 0
+				&& names.contains(name.substring(0, index).toLowerCase());
+	}
+
 }
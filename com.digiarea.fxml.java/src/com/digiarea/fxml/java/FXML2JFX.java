@@ -1,12 +1,16 @@
 package com.digiarea.fxml.java;
 
+import java.io.IOException;
+import java.io.NotSerializableException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import com.digiarea.common.utils.StringUtils;
 import com.digiarea.fxml.Attribute;
@@ -30,9 +34,15 @@ import com.digiarea.fxml.ScriptElement;
 import com.digiarea.fxml.UknownStaticPropertyElement;
 import com.digiarea.fxml.UknownTypeElement;
 import com.digiarea.fxml.ValueElement;
+import com.digiarea.fxml.java.FoldIndex.Fold;
+import com.digiarea.fxml.java.Options.HandlerStyle;
+import com.digiarea.fxml.java.PropertyIndex.Property;
+import com.digiarea.fxml.java.TranslationListener.Phase;
 import com.digiarea.fxml.parser.Constants;
 import com.digiarea.fxml.visitor.GenericVisitor;
 import com.digiarea.jse.AssignExpr.AssignOperator;
+import com.digiarea.jse.BinaryExpr.BinaryOperator;
+import com.digiarea.jse.BodyDeclaration;
 import com.digiarea.jse.ClassOrInterfaceType;
 import com.digiarea.jse.CompilationUnit;
 import com.digiarea.jse.Expression;
@@ -42,8 +52,10 @@ import com.digiarea.jse.Modifiers;
 import com.digiarea.jse.Node;
 import com.digiarea.jse.NodeFacade;
 import com.digiarea.jse.NodeList;
+import com.digiarea.jse.Parameter;
 import com.digiarea.jse.QualifiedNameExpr;
 import com.digiarea.jse.Statement;
+import com.digiarea.jse.Type;
 import com.digiarea.jse.builder.ModelHierarchy;
 import com.digiarea.jse.builder.ModelUpdater;
 import com.digiarea.jse.utils.NodeUtils;
@@ -52,17 +64,11 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 
 	private static final String JAVAFX_CONTROL = "javafx.scene.control.Control";
 	private static final String INITIALIZE = "initialize";
-	private static final String JAVAFX_GEOMETRY_SIDE = "javafx.geometry.Side";
-	private static final String JAVAFX_OVERRUN_STYLE = "javafx.scene.control.OverrunStyle";
-	private static final String JAVAFX_TEXT_ALIGNMENT = "javafx.scene.text.TextAlignment";
-	private static final String JAVAFX_GEOMETRY_H_POS = "javafx.geometry.HPos";
-	private static final String JAVAFX_GEOMETRY_V_POS = "javafx.geometry.VPos";
-	private static final String JAVAFX_TAB_CLOSING_POLICY = "javafx.scene.control.TabPane.TabClosingPolicy";
-	private static final String JAVAFX_CONTENT_DISPLAY = "javafx.scene.control.ContentDisplay";
-	private static final String JAVAFX_SCENE_LAYOUT_PRIORITY = "javafx.scene.layout.Priority";
-	private static final String JAVAFX_GEOMETRY_POS = "javafx.geometry.Pos";
 	private static final String STYLE_CLASS = "styleClass";
+	private static final String IMAGE = "Image";
+	private static final String URL = "url";
 	private static final String OPEN_STREAM = "openStream";
+	private static final String TO_EXTERNAL_FORM = "toExternalForm";
 	private static final String GET_RESOURCE = "getResource";
 	private static final String GET_CLASS = "getClass";
 	private static final String GET_STRING = "getString";
@@ -71,36 +77,27 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 	private static final String FACTORY = "factory";
 	private static final String CALL = "call";
 	private static final String ADD = "add";
+	private static final String ADD_ALL = "addAll";
+	private static final String GET_STYLE_CLASS = "getStyleClass";
+	private static final String SET_ALL = "setAll";
+	private static final String GET_PROPERTIES = "getProperties";
+	private static final String PUT = "put";
+	private static final String GET = "get";
+	private static final String JAVA_UTIL_ARRAY_LIST = "java.util.ArrayList";
+	private static final String JAVA_UTIL_LIST = "java.util.List";
+	private static final String JAVA_LANG_STRING = "java.lang.String";
 	private static final String JAVA_LANG = "java.lang";
 	private static final String METHOD_NAME = "create";
+	// elements append their statements to the sink of the context and
+	// return this marker, null still means that nothing was generated
+	private static final NodeList<Statement> EMITTED = NodeFacade
+			.NodeList(Collections.<Statement> emptyList());
 
-	private static final Map<String, String> listTypes = new HashMap<>();
-
-	static {
-		listTypes.put("children", "javafx.scene.Node");
-		listTypes.put("columnConstraints",
-				"javafx.scene.layout.ColumnConstraints");
-		listTypes.put("rowConstraints", "javafx.scene.layout.RowConstraints");
-		listTypes.put("tabs", "javafx.scene.control.Tab");
-		listTypes.put("items", "javafx.scene.control.MenuItem");
-		listTypes.put("columns", "javafx.scene.control.TableColumn");
-	}
-
-	private List<ImportDeclaration> getImports(ModelHierarchy hierarchy,
-			String fxController) throws Exception {
-		CompilationUnit cu = NodeUtils.selectCompilationUnit(
-				hierarchy.getProject(), fxController);
-		if (cu != null) {
-			List<ImportDeclaration> imports = cu.getImports();
-			if (imports == null) {
-				imports = new ArrayList<>();
-				cu.setImports(NodeFacade.NodeList(imports));
-			}
-			return imports;
-		} else {
-			throw new Exception("Can not find compilation unit for type: "
-					+ fxController);
+	private CompilationUnitIndex getUnits() {
+		if (units == null) {
+			units = new CompilationUnitIndex(hierarchy.getProject());
 		}
+		return units;
 	}
 
 	private boolean isRoot(Element n) {
@@ -112,6 +109,10 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 	}
 
 	private Expression resolve(Attribute n, Context ctx) {
+		Expression parameter = ctx.getParameter(n);
+		if (parameter != null) {
+			return parameter;
+		}
 		String name = n.getName();
 		String value = n.getValue();
 		if (name.startsWith("max") || name.startsWith("min")
@@ -128,131 +129,58 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 		} else if (name.equals(Constants.ID_ATTRIBUTE)) {
 			return NodeFacade.StringLiteralExpr(value);
 		} else if (value.startsWith("%")) {
+			if (options.isCacheStrings()) {
+				return strings.getString(ctx.getStringIndex(value.substring(1)));
+			}
 			Expression arg = NodeFacade.StringLiteralExpr(value.substring(1));
 			return NodeFacade.MethodCallExpr(NodeFacade.NameExpr(BUNDLE), null,
 					GET_STRING, Arrays.asList(arg));
 		} else if (value.startsWith("@")) {
-			return NodeFacade.StringLiteralExpr(normilize(
-					ctx.getFxController(), value));
+			return NodeFacade.StringLiteralExpr(normilize(ctx.getLocation(),
+					value));
 		} else if (name.equals("text")) {
 			return NodeFacade.StringLiteralExpr(value);
-		} else if (isContentDisplay(name, value)) {
-			return NodeFacade.FieldAccessExpr(JAVAFX_CONTENT_DISPLAY, value);
-		} else if (isPriority(name, value)) {
-			return NodeFacade.FieldAccessExpr(JAVAFX_SCENE_LAYOUT_PRIORITY,
-					value);
-		} else if (isTabClosingPolicy(name, value)) {
-			return NodeFacade.FieldAccessExpr(JAVAFX_TAB_CLOSING_POLICY, value);
-		} else if (isTextAlignment(name, value)) {
-			return NodeFacade.FieldAccessExpr(JAVAFX_TEXT_ALIGNMENT, value);
-		} else if (isVPos(name, value)) {
-			return NodeFacade.FieldAccessExpr(JAVAFX_GEOMETRY_V_POS, value);
-		} else if (isHPos(name, value)) {
-			return NodeFacade.FieldAccessExpr(JAVAFX_GEOMETRY_H_POS, value);
-		} else if (isPosition(name, value)) {
-			return NodeFacade.FieldAccessExpr(JAVAFX_GEOMETRY_POS, value);
-		} else if (isOverrunStyle(name, value)) {
-			return NodeFacade.FieldAccessExpr(JAVAFX_OVERRUN_STYLE, value);
-		} else if (isSide(name, value)) {
-			return NodeFacade.FieldAccessExpr(JAVAFX_GEOMETRY_SIDE, value);
+		} else if (value.startsWith("$")) {
+			return NodeFacade.NameExpr(value.substring(1));
 		} else {
-			if (value.startsWith("$")) {
-				return NodeFacade.NameExpr(value.substring(1));
+			Property property = PropertyIndex.getProperty(name);
+			if (property != null) {
+				if (property.isEnumeration()) {
+					return NodeFacade.FieldAccessExpr(property.getType(), value);
+				} else if (PropertyIndex.STRING.equals(property.getType())) {
+					return NodeFacade.StringLiteralExpr(value);
+				}
+			} else {
+				String type = PropertyIndex.getConstantType(value);
+				if (type != null) {
+					return NodeFacade.FieldAccessExpr(type, value);
+				}
 			}
 			return NodeFacade.NameExpr(value);
 		}
 	}
 
-	private boolean isTextAlignment(String name, String value) {
-		String local = name;
-		int index = local.lastIndexOf(".");
-		if (index != -1) {
-			local = local.substring(index + 1);
-		}
-		return local.equals("textAlignment");
-	}
-
-	private boolean isSide(String name, String value) {
-		String local = name;
-		int index = local.lastIndexOf(".");
-		if (index != -1) {
-			local = local.substring(index + 1);
-		}
-		return local.equals("side");
-	}
-
-	private boolean isHPos(String name, String value) {
-		String local = name;
-		int index = local.lastIndexOf(".");
-		if (index != -1) {
-			local = local.substring(index + 1);
-		}
-		return local.equals("halignment");
+	private Path getLocation(String controller) {
+		// documents are next to their controllers
+		return getParent(Paths.get(NodeUtils
+				.createPathFromQualifiedName(controller)));
 	}
 
-	private boolean isVPos(String name, String value) {
-		String local = name;
-		int index = local.lastIndexOf(".");
-		if (index != -1) {
-			local = local.substring(index + 1);
-		}
-		return local.equals("valignment");
+	private Path getLocation(Path includer, String source) {
+		// sources starting with / are relative to the class path root
+		Path path = source.startsWith("/") ? Paths.get(source.substring(1))
+				: includer.resolve(source);
+		return getParent(path.normalize());
 	}
 
-	private boolean isTabClosingPolicy(String name, String value) {
-		Constants.TabClosingPolicy[] values = Constants.TabClosingPolicy
-				.values();
-		for (int i = 0; i < values.length; i++) {
-			if (value.equals(values[i].name())) {
-				return true;
-			}
-		}
-		return false;
-	}
-
-	private boolean isOverrunStyle(String name, String value) {
-		String local = name;
-		int index = local.lastIndexOf(".");
-		if (index != -1) {
-			local = local.substring(index + 1);
-		}
-		return local.equals("textOverrun");
-	}
-
-	private boolean isContentDisplay(String name, String value) {
-		String local = name;
-		int index = local.lastIndexOf(".");
-		if (index != -1) {
-			local = local.substring(index + 1);
-		}
-		return local.equals("contentDisplay");
-	}
-
-	private boolean isPriority(String name, String value) {
-		Constants.Priority[] priorities = Constants.Priority.values();
-		for (int i = 0; i < priorities.length; i++) {
-			if (value.equals(priorities[i].name())) {
-				return true;
-			}
-		}
-		return false;
-	}
-
-	private boolean isPosition(String name, String value) {
-		Constants.Pos[] positions = Constants.Pos.values();
-		for (int i = 0; i < positions.length; i++) {
-			if (value.equals(positions[i].name())) {
-				return true;
-			}
-		}
-		return false;
+	private Path getParent(Path path) {
+		Path parent = path.getParent();
+		return parent != null ? parent : Paths.get("");
 	}
 
-	private String normilize(String controller, String value) {
+	private String normilize(Path location, String value) {
 		Path path = Paths.get(value.substring(1));
-		Path real = Paths
-				.get(NodeUtils.createPathFromQualifiedName(controller));
-		real = real.getParent();
+		Path real = location;
 		while (path.startsWith("../")) {
 			path = path.subpath(1, path.getNameCount());
 			real = real.getParent();
@@ -262,6 +190,11 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 
 	@Override
 	public Node visit(Attribute n, Context ctx) throws Exception {
+		ctx.countAttribute();
+		return getAttribute(n, ctx);
+	}
+
+	private Node getAttribute(Attribute n, Context ctx) throws Exception {
 		String parentIdentifier = ((Element) n.getParent()).getIdentifier();
 		Expression scope = NodeFacade.NameExpr(parentIdentifier);
 		List<Expression> args = new ArrayList<>();
@@ -269,17 +202,26 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 		String localName = n.getName();
 		String methodName = getSetterName(localName);
 		if (localName.equals(STYLE_CLASS)) {
-			scope = NodeFacade.MethodCallExpr(scope, "getStyleClass");
-			args.add(NodeFacade.StringLiteralExpr(n.getValue()));
-			methodName = ADD;
-		} else if (localName.equals("url")) {
+			scope = NodeFacade.MethodCallExpr(scope, GET_STYLE_CLASS);
+			List<Expression> styleClasses = getStyleClasses(n.getValue());
+			if (styleClasses.isEmpty()) {
+				return null;
+			}
+			args.addAll(styleClasses);
+			methodName = styleClasses.size() > 1 ? ADD_ALL : ADD;
+		} else if (localName.equals(URL)) {
 			scope = NodeFacade.MethodCallExpr(null, GET_CLASS);
 			Expression arg = resolve(n, ctx);
 			scope = NodeFacade.MethodCallExpr(scope, null, GET_RESOURCE,
 					Arrays.asList(arg));
 			return NodeFacade.MethodCallExpr(scope, OPEN_STREAM);
 		} else if (attributeType == AttributeType.EVENT_HANDLER) {
-			args.add(FXMLUtils.getEventHandler(n.getValue().substring(1)));
+			String handler = n.getValue().substring(1);
+			if (options.getHandlerStyle() == HandlerStyle.DISPATCHER) {
+				args.add(dispatcher.getHandler(ctx.getHandlerIndex(handler)));
+			} else {
+				args.add(FXMLUtils.getEventHandler(handler));
+			}
 		} else if (attributeType == AttributeType.INSTANCE_PROPERTY) {
 			args.add(resolve(n, ctx));
 		} else if (attributeType == AttributeType.STATIC_PROPERTY) {
@@ -308,18 +250,67 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 
 	@Override
 	public Node visit(CopyElement n, Context ctx) throws Exception {
-		// TODO Auto-generated method stub
-		if (n.getAttributes() != null) {
-			for (Attribute item : n.getAttributes()) {
-				if (item != null) {
-					item.accept(this, ctx);
-				}
+		String source = n.getSource();
+		InstanceDeclarationElement element = findElement(n, source);
+		if (element == null) {
+			throw new Exception("No element with fx:id " + source
+					+ " found to copy");
+		}
+		ClassOrInterfaceType type = NodeFacade.ClassOrInterfaceType(element
+				.getName());
+		String methodName = ctx.getCopy(element);
+		if (methodName == null) {
+			methodName = ctx.getNewMethodName(METHOD_NAME);
+			ctx.putCopy(element, methodName);
+			// the copy is built again from the declaration in its own scope,
+			// so fx:ids of the source are locals there
+			StatementSink sink = ctx.getSink();
+			int mark = sink.size();
+			boolean inlining = ctx.isInlining();
+			ctx.setInlining(true);
+			element.accept(this, ctx);
+			ctx.setInlining(inlining);
+			List<Statement> statements = sink.drain(mark);
+			if (!isRoot(element)) {
+				statements.add(NodeFacade.ReturnStmt(NodeFacade
+						.NameExpr(element.getIdentifier())));
 			}
+			MethodDeclaration method = NodeFacade.MethodDeclaration(
+					Modifiers.PRIVATE, type, methodName);
+			method.setBlock(NodeFacade.BlockStmt(statements));
+			method.setThrowsList(NodeFacade.NodeList(Arrays.asList(NodeFacade
+					.ClassOrInterfaceType("java.lang.Exception"))));
+			ctx.addMember(method);
 		}
-		if (n.getElements() != null) {
+		ctx.getSink().add(NodeFacade.ExpressionStmt(NodeFacade
+				.VariableDeclarationExpr(type, n.getIdentifier(), NodeFacade
+						.MethodCallExpr(methodName,
+								new ArrayList<Expression>()))));
+		return EMITTED;
+	}
+
+	private InstanceDeclarationElement findElement(
+			com.digiarea.fxml.Node n, String fxId) {
+		com.digiarea.fxml.Node node = n;
+		while (node != null && !(node instanceof Fxml)) {
+			node = node.getParent();
+		}
+		if (node != null) {
+			return findElement(((Fxml) node).getRoot(), fxId);
+		}
+		return null;
+	}
+
+	private InstanceDeclarationElement findElement(Element n, String fxId) {
+		if (n instanceof InstanceDeclarationElement
+				&& fxId.equals(((InstanceDeclarationElement) n).getFxId())) {
+			return (InstanceDeclarationElement) n;
+		}
+		if (n != null && n.getElements() != null) {
 			for (Element item : n.getElements()) {
-				if (item != null) {
-					item.accept(this, ctx);
+				InstanceDeclarationElement found = findElement(item, fxId);
+				if (found != null) {
+					return found;
 				}
 			}
 		}
@@ -328,14 +319,7 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 
 	@Override
 	public Node visit(DefineElement n, Context ctx) throws Exception {
-		// TODO Auto-generated method stub
-		if (n.getAttributes() != null) {
-			for (Attribute item : n.getAttributes()) {
-				if (item != null) {
-					item.accept(this, ctx);
-				}
-			}
-		}
+		// defined objects are created once and only referenced later
 		if (n.getElements() != null) {
 			for (Element item : n.getElements()) {
 				if (item != null) {
@@ -343,53 +327,143 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 				}
 			}
 		}
-		return null;
+		return EMITTED;
 	}
 
 	@Override
 	public Node visit(Fxml n, Context ctx) throws Exception {
+		Translation translation = translate(n, ctx);
+		return translation != null ? apply(translation) : null;
+	}
+
+	Translation translate(Fxml n, Context ctx) throws Exception {
+		if (options.isInlineIncludes() && n.getRoot() instanceof ValueElement
+				&& ((ValueElement) n.getRoot()).getController() == null) {
+			// only used inlined into the includers
+			return null;
+		}
+		PhaseTimer timer = PhaseTimer.start(options.getListener(),
+				Phase.GENERATE, n.getName());
+		try {
+			TranslationCache cache = options.getCache();
+			Translation translation = null;
+			if (cache != null) {
+				String key = cache.getKey(n, ctx, options.getSignature());
+				try {
+					translation = cache.get(key);
+				} catch (IOException e) {
+					cacheFailed(n, e);
+				}
+				if (translation == null) {
+					translation = generate(n, ctx);
+					try {
+						cache.put(key, translation);
+					} catch (NotSerializableException e) {
+						// a node type that can not be cached is a bug
+						throw new Exception("Can not cache the translation of "
+								+ n.getName(), e);
+					} catch (IOException e) {
+						cacheFailed(n, e);
+					}
+				}
+			} else {
+				translation = generate(n, ctx);
+			}
+			TranslationListener listener = options.getListener();
+			if (listener != null) {
+				listener.documentTranslated(n.getName(),
+						translation.getElements(),
+						translation.getAttributes(),
+						translation.getStatements());
+			}
+			return translation;
+		} finally {
+			PhaseTimer.stop(timer);
+		}
+	}
+
+	private Translation generate(Fxml n, Context ctx) throws Exception {
 		if (n.getRoot() != null && (n.getRoot() instanceof ValueElement)) {
 			ctx.clear();
 			ValueElement root = (ValueElement) n.getRoot();
+			if (options.isFoldSubtrees()) {
+				FoldIndex.build(root, options, ctx);
+			}
 			// controller
 			String fxController = root.getController();
 			ClassOrInterfaceType type = NodeFacade.ClassOrInterfaceType(root
 					.getName());
 			if (fxController != null) {
 				ctx.setFxController(fxController);
-				// process the root
-				NodeList<Statement> list = (NodeList<Statement>) root.accept(
-						this, ctx);
-				ModelUpdater updater = hierarchy.getUpdater(fxController);
-				if (updater != null) {
-					// process instructions
-					if (n.getProcessingInstructions() != null) {
-						List<ImportDeclaration> imports = getImports(hierarchy,
-								fxController);
-						for (ProcessingInstruction item : n
-								.getProcessingInstructions()) {
-							if (item != null) {
-								Node node = item.accept(this, ctx);
-								if (node != null
-										&& node instanceof ImportDeclaration) {
-									imports.add((ImportDeclaration) node);
-								}
+				ctx.setLocation(getLocation(fxController));
+				// process the root, its statements are appended to the sink
+				root.accept(this, ctx);
+				List<Statement> statements = ctx.getSink().drain(0);
+				// process instructions
+				List<ImportDeclaration> imports = null;
+				if (n.getProcessingInstructions() != null) {
+					imports = new ArrayList<>();
+					for (ProcessingInstruction item : n
+							.getProcessingInstructions()) {
+						if (item != null) {
+							Node node = item.accept(this, ctx);
+							if (node != null && node instanceof ImportDeclaration) {
+								imports.add((ImportDeclaration) node);
 							}
 						}
 					}
-					// make method
-					MethodDeclaration method = NodeFacade.MethodDeclaration(
-							Modifiers.PUBLIC, type, METHOD_NAME);
-					method.setBlock(NodeFacade.BlockStmt(list.getNodes()));
-					method.setThrowsList(NodeFacade.NodeList(Arrays.asList(NodeFacade
-							.ClassOrInterfaceType("java.lang.Exception"))));
-					updater.addMember(method);
-					ctx.setFxController(null);
-					return method;
-				} else {
-					throw new Exception("No updater found for qualified name: "
-							+ fxController);
 				}
+				if (!ctx.getImports().isEmpty()) {
+					if (imports == null) {
+						imports = new ArrayList<>();
+					}
+					imports.addAll(ctx.getImports());
+				}
+				if (!ctx.getStrings().isEmpty()) {
+					statements.add(0, strings.getInitializer());
+					for (BodyDeclaration member : strings.getMembers(ctx
+							.getStrings())) {
+						ctx.addMember(member);
+					}
+				}
+				if (!ctx.getHandlers().isEmpty()) {
+					ctx.addMember(dispatcher.getMethod(ctx.getHandlers()));
+				}
+				if (options.isAsyncCreate()) {
+					// a pooled root is handed out by both variants
+					for (BodyDeclaration member : async.getMembers(
+							root.getName(), root.getIdentifier(), statements,
+							getInitializer(),
+							options.isRecycle() ? pool.getRoot() : null)) {
+						ctx.addMember(member);
+					}
+					statements = async.getStatements(root.getName(),
+							root.getIdentifier(), getInitializer());
+				}
+				if (options.isRecycle()) {
+					List<Statement> recycled = new ArrayList<>(
+							statements.size() + 1);
+					recycled.add(pool.getGuard());
+					recycled.addAll(statements);
+					statements = recycled;
+					for (BodyDeclaration member : pool.getMembers(
+							fxController, type, ctx.getResets(),
+							options.getPoolSize())) {
+						ctx.addMember(member);
+					}
+				}
+				// make method
+				MethodDeclaration method = NodeFacade.MethodDeclaration(
+						Modifiers.PUBLIC, type, METHOD_NAME);
+				method.setBlock(NodeFacade.BlockStmt(statements));
+				method.setThrowsList(NodeFacade.NodeList(Arrays.asList(NodeFacade
+						.ClassOrInterfaceType("java.lang.Exception"))));
+				List<BodyDeclaration> members = new ArrayList<>(
+						ctx.getMembers());
+				ctx.setFxController(null);
+				return new Translation(fxController, method, members, imports,
+						ctx.getElementCount(), ctx.getAttributeCount(),
+						getStatementCount(statements, members));
 			} else {
 				throw new Exception("No fx:controller attribute in "
 						+ n.getName());
@@ -399,6 +473,58 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 		}
 	}
 
+	private void cacheFailed(Fxml n, IOException e) {
+		TranslationListener listener = options.getListener();
+		if (listener != null) {
+			listener.cacheFailed(n.getName(), e);
+		}
+	}
+
+	private int getStatementCount(List<Statement> statements,
+			List<BodyDeclaration> members) {
+		int count = statements.size();
+		for (BodyDeclaration member : members) {
+			if (member instanceof MethodDeclaration
+					&& ((MethodDeclaration) member).getBlock() != null) {
+				count += ((MethodDeclaration) member).getBlock().getStmts()
+						.size();
+			}
+		}
+		return count;
+	}
+
+	Node apply(Translation translation) throws Exception {
+		String fxController = translation.getController();
+		ModelUpdater updater = hierarchy.getUpdater(fxController);
+		if (updater != null) {
+			TranslationListener listener = options.getListener();
+			if (translation.getImports() != null) {
+				PhaseTimer timer = PhaseTimer.start(listener, Phase.IMPORTS,
+						fxController);
+				CompilationUnit cu = getUnits().getCompilationUnit(
+						fxController);
+				if (cu == null) {
+					throw new Exception(
+							"Can not find compilation unit for type: "
+									+ fxController);
+				}
+				getUnits().addImports(cu, translation.getImports());
+				PhaseTimer.stop(timer);
+			}
+			PhaseTimer timer = PhaseTimer.start(listener, Phase.INSERT,
+					fxController);
+			updater.addMember(translation.getMethod());
+			for (BodyDeclaration member : translation.getMembers()) {
+				updater.addMember(member);
+			}
+			PhaseTimer.stop(timer);
+			return translation.getMethod();
+		} else {
+			throw new Exception("No updater found for qualified name: "
+					+ fxController);
+		}
+	}
+
 	@Override
 	public Node visit(ImportProcessing n, Context ctx) throws Exception {
 		if (!JAVA_LANG.equals(n.getValue())) {
@@ -417,116 +543,457 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 
 	@Override
 	public Node visit(IncludeElement n, Context ctx) throws Exception {
-		List<Statement> statements = new ArrayList<>();
+		ctx.countElement();
+		StatementSink sink = ctx.getSink();
 		String source = n.getSource();
 		String controller = ctx.getController(source);
 		ClassOrInterfaceType factoryType = ctx.getFactory(source);
-		ClassOrInterfaceType type = NodeFacade.ClassOrInterfaceType(controller);
-		Expression arg = NodeFacade.ClassExpr(type);
-		arg = NodeFacade.MethodCallExpr(NodeUtils.getGetterCall(
-				NodeFacade.NameExpr(MODEL_FACADE), FACTORY, false), null, CALL,
-				Arrays.asList(arg));
-		arg = NodeFacade.EnclosedExpr(NodeFacade.CastExpr(type, arg));
-		arg = NodeFacade.MethodCallExpr(arg, METHOD_NAME);
-		statements.add(NodeFacade.ExpressionStmt(NodeFacade
-				.VariableDeclarationExpr(factoryType, n.getIdentifier(), arg)));
+		Expression arg;
+		if (isInlined(source, ctx)) {
+			arg = NodeFacade.MethodCallExpr(inline(source, ctx),
+					new ArrayList<Expression>());
+		} else {
+			ClassOrInterfaceType type = NodeFacade
+					.ClassOrInterfaceType(controller);
+			arg = NodeFacade.ClassExpr(type);
+			arg = NodeFacade.MethodCallExpr(NodeUtils.getGetterCall(
+					NodeFacade.NameExpr(MODEL_FACADE), FACTORY, false), null,
+					CALL, Arrays.asList(arg));
+			arg = NodeFacade.EnclosedExpr(NodeFacade.CastExpr(type, arg));
+			arg = NodeFacade.MethodCallExpr(arg, METHOD_NAME);
+		}
+		String identifier = n.getIdentifier();
+		if (identifier.equals(n.getFxId()) && !ctx.isInlining()) {
+			// a field like other fx:id elements, so that it stays visible
+			// when the statements are split into helper methods
+			sink.add(NodeFacade.ExpressionStmt(NodeFacade.AssignExpr(
+					NodeFacade.NameExpr(identifier), arg,
+					AssignOperator.assign)));
+		} else {
+			sink.add(NodeFacade.ExpressionStmt(NodeFacade
+					.VariableDeclarationExpr(factoryType, identifier, arg)));
+		}
 		if (n.getAttributes() != null) {
 			for (Attribute item : n.getAttributes()) {
 				if (item != null) {
 					Node attribute = item.accept(this, ctx);
 					if (attribute != null) {
-						statements.add((Statement) attribute);
+						sink.add((Statement) attribute);
 					}
 				}
 			}
 		}
-		return NodeFacade.NodeList(statements);
+		return EMITTED;
+	}
+
+	private boolean isInlined(String source, Context ctx) {
+		// documents with a controller keep their own instance
+		return options.isInlineIncludes() && ctx.getController(source) == null
+				&& ctx.getDocument(source) != null;
+	}
+
+	private String inline(String source, Context ctx) throws Exception {
+		String methodName = ctx.getInlined(source);
+		if (methodName == null) {
+			methodName = ctx.getNewMethodName(METHOD_NAME);
+			ctx.putInlined(source, methodName);
+			Fxml document = ctx.getDocument(source);
+			// locations in the included document are relative to it
+			Path location = ctx.getLocation();
+			ctx.setLocation(getLocation(location, source));
+			ValueElement root = (ValueElement) document.getRoot();
+			// the included document gets its own scope, so its identifiers
+			// can not clash with the includer ones
+			StatementSink sink = ctx.getSink();
+			int mark = sink.size();
+			boolean inlining = ctx.isInlining();
+			ctx.setInlining(true);
+			root.accept(this, ctx);
+			ctx.setInlining(inlining);
+			ctx.setLocation(location);
+			List<Statement> statements = sink.drain(mark);
+			if (document.getProcessingInstructions() != null) {
+				for (ProcessingInstruction item : document
+						.getProcessingInstructions()) {
+					if (item != null) {
+						Node node = item.accept(this, ctx);
+						if (node != null && node instanceof ImportDeclaration) {
+							ctx.addImport((ImportDeclaration) node);
+						}
+					}
+				}
+			}
+			MethodDeclaration method = NodeFacade.MethodDeclaration(
+					Modifiers.PRIVATE, ctx.getFactory(source), methodName);
+			method.setBlock(NodeFacade.BlockStmt(statements));
+			method.setThrowsList(NodeFacade.NodeList(Arrays.asList(NodeFacade
+					.ClassOrInterfaceType("java.lang.Exception"))));
+			ctx.addMember(method);
+		}
+		return methodName;
 	}
 
 	@Override
 	public Node visit(InstanceDeclarationElement n, Context ctx)
 			throws Exception {
-		List<Statement> statements = new ArrayList<>();
+		Fold fold = ctx.getFold(n);
+		if (fold != null) {
+			return fold(n, fold, ctx);
+		}
+		return instance(n, ctx);
+	}
+
+	private Node fold(InstanceDeclarationElement n, Fold fold, Context ctx)
+			throws Exception {
+		List<Attribute> candidates = FoldIndex.getCandidates(n);
+		ClassOrInterfaceType type = NodeFacade.ClassOrInterfaceType(n
+				.getName());
+		if (fold.getMethod() == null) {
+			// the first member becomes the helper, the values that differ
+			// between the members become its parameters
+			fold.setMethod(ctx.getNewMethodName(METHOD_NAME));
+			Map<Attribute, Expression> parameters = new IdentityHashMap<>();
+			List<Parameter> declarations = new ArrayList<>();
+			for (int i = 0; i < candidates.size(); i++) {
+				if (fold.isVarying(i)) {
+					String parameter = "p$" + declarations.size();
+					parameters.put(candidates.get(i),
+							NodeFacade.NameExpr(parameter));
+					declarations.add(NodeFacade.Parameter(0, NodeFacade
+							.ReferenceType(NodeFacade
+									.ClassOrInterfaceType(FoldIndex
+											.getParameterType(candidates
+													.get(i))), 0), null,
+							NodeFacade.VariableDeclaratorId(parameter, null),
+							null));
+				}
+			}
+			StatementSink sink = ctx.getSink();
+			int mark = sink.size();
+			Map<Attribute, Expression> previous = ctx
+					.setParameters(parameters);
+			instance(n, ctx);
+			ctx.setParameters(previous);
+			List<Statement> statements = sink.drain(mark);
+			statements.add(NodeFacade.ReturnStmt(NodeFacade.NameExpr(n
+					.getIdentifier())));
+			MethodDeclaration method = NodeFacade.MethodDeclaration(
+					Modifiers.PRIVATE, type, fold.getMethod());
+			method.setParameters(NodeFacade.NodeList(declarations));
+			method.setBlock(NodeFacade.BlockStmt(statements));
+			method.setThrowsList(NodeFacade.NodeList(Arrays.asList(NodeFacade
+					.ClassOrInterfaceType("java.lang.Exception"))));
+			ctx.addMember(method);
+		}
+		List<Expression> args = new ArrayList<>();
+		for (int i = 0; i < candidates.size(); i++) {
+			if (fold.isVarying(i)) {
+				args.add(resolve(candidates.get(i), ctx));
+			}
+		}
+		ctx.getSink().add(NodeFacade.ExpressionStmt(NodeFacade
+				.VariableDeclarationExpr(type, n.getIdentifier(), NodeFacade
+						.MethodCallExpr(fold.getMethod(), args))));
+		return EMITTED;
+	}
+
+	private Node instance(InstanceDeclarationElement n, Context ctx)
+			throws Exception {
+		ctx.countElement();
+		StatementSink sink = ctx.getSink();
+		int start = sink.size();
 		String name = n.getName();
 		ClassOrInterfaceType type = NodeFacade.ClassOrInterfaceType(name);
 		List<Element> elements = n.getElements();
 		boolean hasElements = elements != null && elements.size() > 0;
-		// TODO initialize as a value, constant or factory :)
-		List<Expression> arguments = new ArrayList<>();
-		Expression init = NodeFacade.ObjectCreationExpr(type, arguments);
 		String identifier = n.getIdentifier();
-		if (identifier.equals(n.getFxId())) {
-			statements.add(NodeFacade.ExpressionStmt(NodeFacade.AssignExpr(
+		boolean isField = identifier.equals(n.getFxId())
+				&& !ctx.isInlining();
+		List<Expression> arguments = new ArrayList<>();
+		Expression init = null;
+		ValueType valueType = ValueType.getValueType(name);
+		if (valueType != null && !valueType.isMapped(n.getAttributes())) {
+			valueType = null;
+		}
+		if (valueType != null) {
+			List<String> values = valueType.getValues(n.getAttributes());
+			if (options.isShareValues() && !isField && !hasElements
+					&& valueType.isConstant(values)) {
+				init = NodeFacade.NameExpr(getConstant(valueType, values, ctx));
+			} else {
+				arguments.addAll(valueType.getArguments(values));
+			}
+		}
+		if (name.equals(IMAGE)) {
+			init = getImage(n, ctx);
+		}
+		if (init == null) {
+			init = NodeFacade.ObjectCreationExpr(type, arguments);
+		}
+		if (isField) {
+			sink.add(NodeFacade.ExpressionStmt(NodeFacade.AssignExpr(
 					NodeFacade.NameExpr(identifier), init,
 					AssignOperator.assign)));
 		} else {
-			statements.add(NodeFacade.ExpressionStmt(NodeFacade
+			sink.add(NodeFacade.ExpressionStmt(NodeFacade
 					.VariableDeclarationExpr(type, identifier, init)));
 		}
-		if (n.getAttributes() != null) {
-			if (name.equals("Insets")) {
-				makeInsets(n.getAttributes(), arguments);
-			} else {
-				for (Attribute item : n.getAttributes()) {
-					if (item != null) {
-						Node attribute = item.accept(this, ctx);
-						if (attribute != null) {
-							if (name.equals("Image")) {
-								arguments.add((Expression) attribute);
-							} else {
-
-								statements.add((Statement) attribute);
-							}
+		if (n.getAttributes() != null && valueType == null) {
+			for (Attribute item : n.getAttributes()) {
+				if (item != null) {
+					Node attribute = item.accept(this, ctx);
+					if (attribute != null) {
+						if (name.equals(IMAGE)) {
+							arguments.add((Expression) attribute);
+						} else {
+							sink.add((Statement) attribute);
 						}
 					}
 				}
 			}
 		}
+		if (options.isRecycle() && !ctx.isInlining() && valueType == null
+				&& !name.equals(IMAGE) && (isField || isRoot(n))) {
+			addResets(n, type, isField, ctx);
+		}
+		int head = sink.size() - start;
+		// every child appends one or more chunks, their starts are marked so
+		// that they can be outlined if the element gets too long
+		int base = sink.getMarkCount();
 		if (hasElements) {
 			for (Element item : elements) {
 				if (item != null) {
-					NodeList<Statement> list = (NodeList<Statement>) item
-							.accept(this, ctx);
-					if (list != null) {
-						statements.addAll(list.getNodes());
+					if (item instanceof PropertyElement) {
+						addChunks((PropertyElement) item, ctx);
+					} else {
+						int mark = sink.size();
+						if (item.accept(this, ctx) != null) {
+							sink.mark(mark);
+						}
 					}
 				}
 			}
 		}
+		List<Statement> trailer = Collections.emptyList();
 		if (isRoot(n)) {
-			List<Expression> args = new ArrayList<>();
-			args.add(NodeFacade.NullLiteralExpr());
-			args.add(NodeFacade.NameExpr(BUNDLE));
-			statements.add(NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(
-					INITIALIZE, args)));
-			statements.add(NodeFacade.ReturnStmt(NodeFacade
-					.NameExpr(identifier)));
+			trailer = new ArrayList<>();
+			if (!ctx.isInlining()) {
+				// the asynchronous variant initializes on the FX thread
+				if (!options.isAsyncCreate()) {
+					trailer.add(getInitializer());
+				}
+				if (options.isRecycle()) {
+					trailer.add(pool.getAssignment(identifier));
+				}
+			}
+			trailer.add(NodeFacade.ReturnStmt(NodeFacade.NameExpr(identifier)));
 		}
-		return NodeFacade.NodeList(statements);
+		split(name, identifier, base, head + trailer.size(), ctx);
+		sink.addAll(trailer);
+		return EMITTED;
 	}
 
-	private void makeInsets(List<Attribute> attributes,
-			List<Expression> arguments) {
-		// Insets(double top, double right, double bottom, double left)
-		arguments.add(NodeFacade.DoubleLiteralExpr(selectAttribute(attributes,
-				"top", "0.0")));
-		arguments.add(NodeFacade.DoubleLiteralExpr(selectAttribute(attributes,
-				"right", "0.0")));
-		arguments.add(NodeFacade.DoubleLiteralExpr(selectAttribute(attributes,
-				"bottom", "0.0")));
-		arguments.add(NodeFacade.DoubleLiteralExpr(selectAttribute(attributes,
-				"left", "0.0")));
+	private Statement getInitializer() {
+		// initialize(null, bundle);
+		List<Expression> args = new ArrayList<>();
+		args.add(NodeFacade.NullLiteralExpr());
+		args.add(NodeFacade.NameExpr(BUNDLE));
+		return NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(
+				INITIALIZE, args));
+	}
 
+	private List<Expression> getStyleClasses(String value) {
+		// comma or space separated classes are added at once, as the
+		// FXMLLoader splits list values
+		List<Expression> styleClasses = new ArrayList<>();
+		for (String styleClass : value.split("[,\\s]+")) {
+			if (!styleClass.isEmpty()) {
+				styleClasses.add(NodeFacade.StringLiteralExpr(styleClass));
+			}
+		}
+		return styleClasses;
 	}
 
-	private String selectAttribute(List<Attribute> attributes, String name,
-			String value) {
-		for (Attribute attribute : attributes) {
-			if (attribute.getName().equals(name)) {
-				return attribute.getValue();
+	private void addResets(InstanceDeclarationElement n,
+			ClassOrInterfaceType type, boolean isField, Context ctx)
+			throws Exception {
+		// the declared values are set again when a recycled graph is reused
+		String identifier = n.getIdentifier();
+		List<Statement> statements = new ArrayList<>();
+		boolean styleClass = false;
+		if (n.getAttributes() != null) {
+			for (Attribute item : n.getAttributes()) {
+				if (item != null
+						&& item.getAttributeType() != AttributeType.EVENT_HANDLER
+						&& !item.getName().equals(URL)) {
+					if (item.getName().equals(STYLE_CLASS)) {
+						styleClass = true;
+					} else {
+						Node attribute = getAttribute(item, ctx);
+						if (attribute instanceof Statement) {
+							statements.add((Statement) attribute);
+						}
+					}
+				}
 			}
 		}
-		return value;
+		if (styleClass) {
+			// the classes of the constructor and the declared ones are kept
+			// on the object itself, create$reset() goes back to them
+			// root.getProperties().put("create$styleClass",
+			// new ArrayList<String>(root.getStyleClass()));
+			String key = METHOD_NAME + "$" + STYLE_CLASS;
+			ctx.getSink().add(NodeFacade.ExpressionStmt(NodeFacade
+					.MethodCallExpr(NodeFacade.MethodCallExpr(
+							NodeFacade.NameExpr(identifier), GET_PROPERTIES),
+							null, PUT, Arrays.asList(NodeFacade
+									.StringLiteralExpr(key), NodeFacade
+									.ObjectCreationExpr(
+											getStringsType(JAVA_UTIL_ARRAY_LIST),
+											Arrays.asList((Expression) NodeFacade
+													.MethodCallExpr(
+															NodeFacade
+																	.NameExpr(identifier),
+															GET_STYLE_CLASS)))))));
+			// root.getStyleClass().setAll((List<String>) root.getProperties()
+			// .get("create$styleClass"));
+			statements.add(NodeFacade.ExpressionStmt(NodeFacade
+					.MethodCallExpr(NodeFacade.MethodCallExpr(
+							NodeFacade.NameExpr(identifier), GET_STYLE_CLASS),
+							null, SET_ALL, Arrays.asList((Expression) NodeFacade
+									.CastExpr(getStringsType(JAVA_UTIL_LIST),
+											NodeFacade.MethodCallExpr(
+													NodeFacade.MethodCallExpr(
+															NodeFacade
+																	.NameExpr(identifier),
+															GET_PROPERTIES),
+													null, GET, Arrays
+															.asList((Expression) NodeFacade
+																	.StringLiteralExpr(key))))))));
+		}
+		if (!statements.isEmpty()) {
+			if (!isField) {
+				ctx.addReset(pool.getDeclaration(type, identifier));
+			}
+			// fields of a lazy content may still be null
+			ctx.addReset(NodeFacade.IfStmt(NodeFacade.BinaryExpr(
+					NodeFacade.NameExpr(identifier),
+					NodeFacade.NullLiteralExpr(), BinaryOperator.notEquals),
+					NodeFacade.BlockStmt(statements), null));
+		}
+	}
+
+	private ClassOrInterfaceType getStringsType(String name) {
+		return NodeFacade.ClassOrInterfaceType(null,
+				NodeFacade.QualifiedNameExpr(name), Arrays
+						.asList((Type) NodeFacade.ReferenceType(NodeFacade
+								.ClassOrInterfaceType(JAVA_LANG_STRING), 0)));
+	}
+
+	private void split(String name, String identifier, int base,
+			int reserved, Context ctx) {
+		StatementSink sink = ctx.getSink();
+		int count = sink.getMarkCount();
+		int max = options.getMaxStatements();
+		// fx:ids are locals of an inlined scope, a helper could not see them
+		if (count > base && max > 0 && !ctx.isInlining()
+				&& reserved + sink.size() - sink.getMark(base) > max) {
+			// children only reference their own locals, fields and the
+			// parent, so consecutive children can move to a helper that
+			// takes the parent as a parameter
+			int first = sink.getMark(base);
+			int end = sink.size();
+			int[] starts = new int[count - base];
+			for (int i = base; i < count; i++) {
+				starts[i - base] = sink.getMark(i) - first;
+			}
+			List<Statement> chunks = sink.drain(first);
+			List<Statement> group = new ArrayList<>();
+			for (int i = 0; i < starts.length; i++) {
+				int size = (i + 1 < starts.length ? starts[i + 1] : end - first)
+						- starts[i];
+				if (!group.isEmpty() && group.size() + size > max) {
+					sink.add(outline(name, identifier, group, ctx));
+					group = new ArrayList<>();
+				}
+				group.addAll(chunks.subList(starts[i], starts[i] + size));
+			}
+			if (!group.isEmpty()) {
+				sink.add(outline(name, identifier, group, ctx));
+			}
+		}
+		sink.resetMarks(base);
+	}
+
+	private Statement outline(String name, String identifier,
+			List<Statement> statements, Context ctx) {
+		String methodName = ctx.getNewMethodName(METHOD_NAME);
+		MethodDeclaration method = NodeFacade.MethodDeclaration(
+				Modifiers.PRIVATE, NodeFacade.VoidType(), methodName);
+		method.setParameters(NodeFacade.NodeList(Arrays.asList(NodeFacade
+				.Parameter(0, NodeFacade.ReferenceType(
+						NodeFacade.ClassOrInterfaceType(name), 0), null,
+						NodeFacade.VariableDeclaratorId(identifier, null),
+						null))));
+		method.setBlock(NodeFacade.BlockStmt(statements));
+		method.setThrowsList(NodeFacade.NodeList(Arrays.asList(NodeFacade
+				.ClassOrInterfaceType("java.lang.Exception"))));
+		ctx.addMember(method);
+		return NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(methodName,
+				Arrays.asList((Expression) NodeFacade.NameExpr(identifier))));
+	}
+
+	private Expression getImage(InstanceDeclarationElement n, Context ctx) {
+		List<Attribute> attributes = n.getAttributes();
+		String imageCache = options.getImageCache();
+		boolean background = options.isBackgroundImageLoading();
+		if ((imageCache != null || background) && attributes != null
+				&& attributes.size() == 1
+				&& attributes.get(0).getName().equals(URL)
+				&& attributes.get(0).getValue().startsWith("@")) {
+			Expression path = resolve(attributes.get(0), ctx);
+			if (imageCache != null) {
+				// static Image get(String path, boolean backgroundLoading)
+				int index = imageCache.lastIndexOf('.');
+				return NodeFacade.MethodCallExpr(NodeFacade
+						.QualifiedNameExpr(imageCache.substring(0, index)),
+						null, imageCache.substring(index + 1), Arrays.asList(
+								path, NodeFacade.NameExpr(String
+										.valueOf(background))));
+			} else {
+				Expression url = NodeFacade.MethodCallExpr(NodeFacade
+						.MethodCallExpr(NodeFacade.MethodCallExpr(null,
+								GET_CLASS), null, GET_RESOURCE, Arrays
+								.asList(path)), TO_EXTERNAL_FORM);
+				return NodeFacade.ObjectCreationExpr(
+						NodeFacade.ClassOrInterfaceType(IMAGE),
+						Arrays.asList(url, NodeFacade.NameExpr("true")));
+			}
+		}
+		return null;
+	}
+
+	private String getConstant(ValueType valueType, List<String> values,
+			Context ctx) {
+		String key = valueType.getName() + values;
+		String constant = ctx.getConstant(key);
+		if (constant == null) {
+			// immutable values are shared by all instances of the controller
+			constant = METHOD_NAME.toUpperCase() + "$"
+					+ valueType.getName().toUpperCase()
+					+ (ctx.getConstantCount() + 1);
+			ctx.putConstant(key, constant);
+			ClassOrInterfaceType type = NodeFacade.ClassOrInterfaceType(valueType
+					.getName());
+			ctx.addMember(NodeFacade.FieldDeclaration(Modifiers.PRIVATE
+					| Modifiers.STATIC | Modifiers.FINAL, type, Arrays
+					.asList(NodeFacade.VariableDeclarator(NodeFacade
+							.VariableDeclaratorId(constant, null), NodeFacade
+							.ObjectCreationExpr(NodeFacade
+									.ClassOrInterfaceType(valueType.getName()),
+									valueType.getArguments(values))))));
+		}
+		return constant;
 	}
 
 	@Override
@@ -538,42 +1005,107 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 	@Override
 	public Node visit(com.digiarea.fxml.Project n, Context ctx)
 			throws Exception {
+		units = new CompilationUnitIndex(hierarchy.getProject());
+		if (options.getCache() != null) {
+			// the documents may have changed since the last run
+			options.getCache().reset();
+		}
 		if (n.getFxmls() != null) {
-			for (Fxml item : n.getFxmls()) {
-				if (item != null) {
-					item.accept(this, ctx);
+			if (options.getParallelism() > 1) {
+				translateParallel(n.getFxmls(), ctx);
+			} else {
+				for (Fxml item : n.getFxmls()) {
+					if (item != null) {
+						item.accept(this, ctx);
+					}
 				}
 			}
 		}
 		return null;
 	}
 
+	private void translateParallel(List<Fxml> fxmls, Context ctx)
+			throws Exception {
+		// documents are translated independently, results are applied to
+		// the updaters in the project order
+		Translation[] translations = new Translation[fxmls.size()];
+		Exception[] errors = new Exception[fxmls.size()];
+		ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+		try {
+			pool.invoke(new TranslationTask(this, ctx, fxmls, translations,
+					errors, 0, fxmls.size()));
+		} finally {
+			pool.shutdown();
+		}
+		for (int i = 0; i < translations.length; i++) {
+			if (errors[i] != null) {
+				throw errors[i];
+			}
+			if (translations[i] != null) {
+				apply(translations[i]);
+			}
+		}
+	}
+
 	@Override
 	public Node visit(PropertyElement n, Context ctx) throws Exception {
+		StatementSink sink = ctx.getSink();
+		int base = sink.getMarkCount();
+		addChunks(n, ctx);
+		sink.resetMarks(base);
+		return EMITTED;
+	}
+
+	private void addChunks(PropertyElement n, Context ctx) throws Exception {
 		Element parent = (Element) n.getParent();
-		List<Statement> statements = new ArrayList<>();
+		StatementSink sink = ctx.getSink();
 		List<Element> elements = n.getElements();
 		String parentIdentifier = parent.getIdentifier();
 		if (elements != null && elements.size() > 0) {
 			String name = n.getName();
-			boolean isList = listTypes.containsKey(name);
+			Property property = PropertyIndex.getProperty(name);
+			boolean isList = property != null && property.isList();
+			// content of an inlined scope can not move to a helper either
+			String trigger = options.isLazyContent() && !ctx.isInlining() ? LazyContent
+					.getTrigger(parent, n) : null;
+			// list items are added with one addAll per batch, a batch stays
+			// below the statement limit so that it can be outlined as a whole
+			int max = options.getMaxStatements();
+			int batch = 0;
+			List<Expression> items = new ArrayList<>();
 			for (Element item : elements) {
 				if (item != null) {
-					NodeList<Statement> list = (NodeList<Statement>) item
-							.accept(this, ctx);
-					if (list != null) {
+					int mark = sink.size();
+					Node result = item.accept(this, ctx);
+					if (result != null && item instanceof DefineElement) {
+						if (!items.isEmpty()) {
+							mark = addBatch(sink, mark, items,
+									parentIdentifier, name);
+							items = new ArrayList<>();
+						}
+						sink.mark(mark);
+					} else if (result != null) {
 						Expression arg = NodeFacade.NameExpr(item
 								.getIdentifier());
-						statements.addAll(list.getNodes());
-						if (isList) {
-							statements
-									.add(NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(
-											NodeUtils.getGetterCall(
-													NodeFacade
-															.NameExpr(parentIdentifier),
-													name, false), null, ADD,
-											Arrays.asList(arg))));
+						if (trigger != null) {
+							sink.mark(mark);
+							sink.add(lazy(parent, trigger, sink.drain(mark),
+									item.getIdentifier(), ctx));
+						} else if (isList) {
+							if (items.isEmpty()) {
+								batch = mark;
+								sink.mark(mark);
+							} else if (max > 0 && mark > batch
+									&& sink.size() - batch + 1 > max) {
+								mark = addBatch(sink, mark, items,
+										parentIdentifier, name);
+								items = new ArrayList<>();
+								batch = mark;
+								sink.mark(mark);
+							}
+							items.add(arg);
 						} else {
+							sink.mark(mark);
 							if (n.getPropertyType() == PropertyType.STATIC_PROPERTY) {
 								List<Expression> args = new ArrayList<>();
 								args.add(NodeFacade.NameExpr(parentIdentifier));
@@ -583,23 +1115,52 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 								Expression scope = qName.getQualifier();
 								String methodName = getSetterName(qName
 										.getName());
-								statements.add(NodeFacade
-										.ExpressionStmt(NodeFacade
-												.MethodCallExpr(scope, null,
-														methodName, args)));
+								sink.add(NodeFacade.ExpressionStmt(NodeFacade
+										.MethodCallExpr(scope, null,
+												methodName, args)));
 							} else {
-								statements
-										.add(NodeFacade.ExpressionStmt(NodeUtils.getSetterCall(
-												NodeFacade
-														.NameExpr(parentIdentifier),
-												n.getName(), arg, false)));
+								sink.add(NodeFacade.ExpressionStmt(NodeUtils.getSetterCall(
+										NodeFacade.NameExpr(parentIdentifier),
+										n.getName(), arg, false)));
 							}
 						}
 					}
 				}
 			}
+			if (!items.isEmpty()) {
+				addBatch(sink, sink.size(), items, parentIdentifier, name);
+			}
 		}
-		return NodeFacade.NodeList(statements);
+	}
+
+	private int addBatch(StatementSink sink, int position,
+			List<Expression> items, String parentIdentifier, String name) {
+		// the add closes the batch at the position, the statements after it
+		// are moved behind and their new start is returned
+		List<Statement> moved = position < sink.size() ? sink.drain(position)
+				: Collections.<Statement> emptyList();
+		sink.add(NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(
+				NodeUtils.getGetterCall(NodeFacade.NameExpr(parentIdentifier),
+						name, false), null, items.size() > 1 ? ADD_ALL : ADD,
+				items)));
+		int start = sink.size();
+		sink.addAll(moved);
+		return start;
+	}
+
+	private Statement lazy(Element parent, String trigger,
+			List<Statement> statements, String identifier, Context ctx) {
+		String parentIdentifier = parent.getIdentifier();
+		String content = ctx.getNewMethodName(METHOD_NAME);
+		ctx.addMember(LazyContent.getContentMethod(content, statements,
+				identifier));
+		String installer = ctx.getNewMethodName(METHOD_NAME);
+		ctx.addMember(LazyContent.getInstaller(installer,
+				((ValueElement) parent).getName(), parentIdentifier, trigger,
+				content));
+		return NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(installer,
+				Arrays.asList((Expression) NodeFacade
+						.NameExpr(parentIdentifier))));
 	}
 
 	@Override
@@ -610,27 +1171,13 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 
 	@Override
 	public Node visit(ReferenceElement n, Context ctx) throws Exception {
-		// TODO Auto-generated method stub
-		if (n.getAttributes() != null) {
-			for (Attribute item : n.getAttributes()) {
-				if (item != null) {
-					item.accept(this, ctx);
-				}
-			}
-		}
-		if (n.getElements() != null) {
-			for (Element item : n.getElements()) {
-				if (item != null) {
-					item.accept(this, ctx);
-				}
-			}
-		}
-		return null;
+		// the identifier is the referenced fx:id, nothing is allocated
+		return EMITTED;
 	}
 
 	@Override
 	public Node visit(RootElement n, Context ctx) throws Exception {
-		// TODO Auto-generated method stub
+		int mark = ctx.getSink().size();
 		if (n.getAttributes() != null) {
 			for (Attribute item : n.getAttributes()) {
 				if (item != null) {
@@ -645,12 +1192,14 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 				}
 			}
 		}
+		// nothing is generated for the element and its children
+		ctx.getSink().truncate(mark);
 		return null;
 	}
 
 	@Override
 	public Node visit(ScriptElement n, Context ctx) throws Exception {
-		// TODO Auto-generated method stub
+		int mark = ctx.getSink().size();
 		if (n.getAttributes() != null) {
 			for (Attribute item : n.getAttributes()) {
 				if (item != null) {
@@ -665,13 +1214,15 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 				}
 			}
 		}
+		// nothing is generated for the element and its children
+		ctx.getSink().truncate(mark);
 		return null;
 	}
 
 	@Override
 	public Node visit(UknownStaticPropertyElement n, Context ctx)
 			throws Exception {
-		// TODO Auto-generated method stub
+		int mark = ctx.getSink().size();
 		if (n.getAttributes() != null) {
 			for (Attribute item : n.getAttributes()) {
 				if (item != null) {
@@ -686,12 +1237,14 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 				}
 			}
 		}
+		// nothing is generated for the element and its children
+		ctx.getSink().truncate(mark);
 		return null;
 	}
 
 	@Override
 	public Node visit(UknownTypeElement n, Context ctx) throws Exception {
-		// TODO Auto-generated method stub
+		int mark = ctx.getSink().size();
 		if (n.getAttributes() != null) {
 			for (Attribute item : n.getAttributes()) {
 				if (item != null) {
@@ -706,14 +1259,34 @@ public class FXML2JFX implements GenericVisitor<Node, Context> {
 				}
 			}
 		}
+		// nothing is generated for the element and its children
+		ctx.getSink().truncate(mark);
 		return null;
 	}
 
 	private ModelHierarchy hierarchy = null;
 
+	// compilation units of the current run
+	private CompilationUnitIndex units = null;
+
+	private Options options = null;
+
+	private ResourceStrings strings = new ResourceStrings(METHOD_NAME, BUNDLE);
+
+	private RecyclePool pool = new RecyclePool(METHOD_NAME);
+
+	private AsyncCreate async = new AsyncCreate(METHOD_NAME);
+
+	private HandlerDispatcher dispatcher = new HandlerDispatcher(METHOD_NAME);
+
 	public FXML2JFX(ModelHierarchy hierarchy) {
+		this(hierarchy, new Options());
+	}
+
+	public FXML2JFX(ModelHierarchy hierarchy, Options options) {
 		super();
 		this.hierarchy = hierarchy;
+		this.options = options;
 	}
 
 }
@@ -0,0 +1,154 @@
+package com.digiarea.fxml.java;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.digiarea.fxml.Attribute;
+import com.digiarea.fxml.CopyElement;
+import com.digiarea.fxml.DefineElement;
+import com.digiarea.fxml.Fxml;
+import com.digiarea.fxml.ImportProcessing;
+import com.digiarea.fxml.IncludeElement;
+import com.digiarea.fxml.InstanceDeclarationElement;
+import com.digiarea.fxml.LanguageProcessing;
+import com.digiarea.fxml.PropertyElement;
+import com.digiarea.fxml.ReferenceElement;
+import com.digiarea.fxml.RootElement;
+import com.digiarea.fxml.ScriptElement;
+import com.digiarea.fxml.UknownStaticPropertyElement;
+import com.digiarea.fxml.UknownTypeElement;
+import com.digiarea.fxml.visitor.VoidVisitorAdapter;
+
+public class FXMLHasher extends VoidVisitorAdapter<MessageDigest> {
+
+	private static final byte SEPARATOR = 0;
+
+	private static final byte NULL = 1;
+
+	private static final byte END = 2;
+
+	private List<String> sources = new ArrayList<>();
+
+	public List<String> getSources() {
+		return sources;
+	}
+
+	@Override
+	public void visit(Fxml n, MessageDigest ctx) throws Exception {
+		update(ctx, "Fxml", n.getName());
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(ImportProcessing n, MessageDigest ctx) throws Exception {
+		update(ctx, "ImportProcessing", n.getValue(),
+				String.valueOf(n.getImportType()));
+		super.visit(n, ctx);
+	}
+
+	@Override
+	public void visit(LanguageProcessing n, MessageDigest ctx)
+			throws Exception {
+		update(ctx, "LanguageProcessing", n.getValue());
+		super.visit(n, ctx);
+	}
+
+	@Override
+	public void visit(Attribute n, MessageDigest ctx) throws Exception {
+		update(ctx, "Attribute", n.getName(), n.getValue(),
+				String.valueOf(n.getAttributeType()));
+		super.visit(n, ctx);
+	}
+
+	@Override
+	public void visit(InstanceDeclarationElement n, MessageDigest ctx)
+			throws Exception {
+		update(ctx, "InstanceDeclarationElement", n.getName(), n.getFxId(),
+				n.getIdentifier(), n.getController());
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(IncludeElement n, MessageDigest ctx) throws Exception {
+		update(ctx, "IncludeElement", n.getSource(), n.getFxId(),
+				n.getIdentifier());
+		sources.add(n.getSource());
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(PropertyElement n, MessageDigest ctx) throws Exception {
+		update(ctx, "PropertyElement", n.getName(), n.getIdentifier(),
+				String.valueOf(n.getPropertyType()));
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(CopyElement n, MessageDigest ctx) throws Exception {
+		update(ctx, "CopyElement", n.getSource(), n.getIdentifier());
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(ReferenceElement n, MessageDigest ctx) throws Exception {
+		update(ctx, "ReferenceElement", n.getSource(), n.getIdentifier());
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(DefineElement n, MessageDigest ctx) throws Exception {
+		update(ctx, "DefineElement");
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(RootElement n, MessageDigest ctx) throws Exception {
+		update(ctx, "RootElement", n.getIdentifier());
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(ScriptElement n, MessageDigest ctx) throws Exception {
+		update(ctx, "ScriptElement");
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(UknownStaticPropertyElement n, MessageDigest ctx)
+			throws Exception {
+		update(ctx, "UknownStaticPropertyElement", n.getIdentifier());
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	@Override
+	public void visit(UknownTypeElement n, MessageDigest ctx)
+			throws Exception {
+		update(ctx, "UknownTypeElement", n.getIdentifier());
+		super.visit(n, ctx);
+		ctx.update(END);
+	}
+
+	public static void update(MessageDigest digest, String... values) {
+		for (String value : values) {
+			if (value != null) {
+				digest.update(value.getBytes(StandardCharsets.UTF_8));
+				digest.update(SEPARATOR);
+			} else {
+				digest.update(NULL);
+			}
+		}
+	}
+
+}
@@ -1,30 +1,47 @@
 package com.digiarea.fxml.java;
 
 import com.digiarea.common.utils.StringUtils;
+import com.digiarea.fxml.CopyElement;
 import com.digiarea.fxml.Element;
 import com.digiarea.fxml.Fxml;
 import com.digiarea.fxml.IncludeElement;
 import com.digiarea.fxml.InstanceDeclarationElement;
 import com.digiarea.fxml.Node;
 import com.digiarea.fxml.PropertyElement;
+import com.digiarea.fxml.ReferenceElement;
 import com.digiarea.fxml.ValueElement;
+import com.digiarea.fxml.java.TranslationListener.Phase;
 import com.digiarea.fxml.visitor.VoidVisitorAdapter;
-import com.digiarea.jse.ClassOrInterfaceType;
-import com.digiarea.jse.NodeFacade;
 
 public class FXMLScanner extends VoidVisitorAdapter<Context> {
 
+	private TranslationListener listener = null;
+
+	private String document = null;
+
+	public FXMLScanner() {
+		super();
+	}
+
+	public FXMLScanner(TranslationListener listener) {
+		super();
+		this.listener = listener;
+	}
+
 	@Override
 	public void visit(Fxml n, Context ctx) throws Exception {
+		PhaseTimer timer = PhaseTimer
+				.start(listener, Phase.SCAN, n.getName());
 		if (n.getRoot() != null) {
 			ValueElement root = (ValueElement) n.getRoot();
 			String name = n.getName() + ".fxml";
+			document = name;
 			ctx.putController(name, root.getController());
-			ClassOrInterfaceType type = NodeFacade.ClassOrInterfaceType(root
-					.getName());
-			ctx.putFactory(name, type);
+			ctx.putFactory(name, root.getName());
+			ctx.putDocument(name, n);
 		}
 		super.visit(n, ctx);
+		PhaseTimer.stop(timer);
 	}
 
 	@Override
@@ -37,6 +54,22 @@ public class FXMLScanner extends VoidVisitorAdapter<Context> {
 	@Override
 	public void visit(IncludeElement n, Context ctx) throws Exception {
 		n.setIdentifier(getIdentifier(n.getFxId(), n.getId(), n.getName(), ctx));
+		if (document != null) {
+			ctx.putIncluder(n.getSource(), document);
+		}
+		super.visit(n, ctx);
+	}
+
+	@Override
+	public void visit(ReferenceElement n, Context ctx) throws Exception {
+		n.setIdentifier(n.getSource());
+		super.visit(n, ctx);
+	}
+
+	@Override
+	public void visit(CopyElement n, Context ctx) throws Exception {
+		n.setIdentifier(getIdentifier(null, n.getId(), n.getSource() + "Copy",
+				ctx));
 		super.visit(n, ctx);
 	}
 
@@ -0,0 +1,249 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.digiarea.fxml.Attribute;
+import com.digiarea.fxml.Attribute.AttributeType;
+import com.digiarea.fxml.Element;
+import com.digiarea.fxml.InstanceDeclarationElement;
+import com.digiarea.fxml.PropertyElement;
+import com.digiarea.fxml.parser.Constants;
+
+public class FoldIndex {
+
+	// smaller subtrees are cheaper inline than as a call
+	private static final int MIN_SIZE = 4;
+	private static final String IMAGE = "Image";
+	private static final String TEXT = "text";
+	private static final String STYLE_CLASS = "styleClass";
+	private static final String URL = "url";
+
+	public static class Fold {
+
+		private final List<InstanceDeclarationElement> members =
+				new ArrayList<>();
+
+		private boolean[] varying = null;
+
+		private String method = null;
+
+		public List<InstanceDeclarationElement> getMembers() {
+			return members;
+		}
+
+		public boolean isVarying(int index) {
+			return varying[index];
+		}
+
+		public String getMethod() {
+			return method;
+		}
+
+		public void setMethod(String method) {
+			this.method = method;
+		}
+
+	}
+
+	private final Options options;
+
+	private final Map<Element, String> keys = new IdentityHashMap<>();
+
+	private final Map<Element, Integer> sizes = new IdentityHashMap<>();
+
+	private final Map<String, Integer> counts = new HashMap<>();
+
+	private final Map<String, Fold> folds = new HashMap<>();
+
+	private FoldIndex(Options options) {
+		super();
+		this.options = options;
+	}
+
+	public static void build(Element root, Options options, Context ctx) {
+		FoldIndex index = new FoldIndex(options);
+		index.getKey(root);
+		if (root.getElements() != null) {
+			for (Element item : root.getElements()) {
+				index.select(item);
+			}
+		}
+		for (Fold fold : index.folds.values()) {
+			if (fold.members.size() > 1) {
+				fold.varying = getVarying(fold.members);
+				for (InstanceDeclarationElement member : fold.members) {
+					ctx.putFold(member, fold);
+				}
+			}
+		}
+	}
+
+	private String getKey(Element n) {
+		// equal keys mean the same statements up to the parameters
+		StringBuilder builder = new StringBuilder();
+		int size = 1;
+		boolean constant = true;
+		if (n instanceof InstanceDeclarationElement) {
+			InstanceDeclarationElement element = (InstanceDeclarationElement) n;
+			String name = element.getName();
+			// fields and references need the scope of create()
+			if (element.getFxId() != null) {
+				return null;
+			}
+			constant = ValueType.getValueType(name) != null
+					|| name.equals(IMAGE);
+			builder.append('<').append(name);
+		} else if (n instanceof PropertyElement) {
+			PropertyElement property = (PropertyElement) n;
+			if (options.isLazyContent()
+					&& LazyContent.getTrigger((Element) n.getParent(),
+							property) != null) {
+				return null;
+			}
+			builder.append('{').append(property.getName());
+		} else {
+			return null;
+		}
+		if (n.getAttributes() != null) {
+			for (Attribute item : n.getAttributes()) {
+				String value = item.getValue();
+				if (value != null && value.startsWith("$")) {
+					return null;
+				}
+				builder.append(' ').append(item.getName());
+				if (!constant && getParameterType(item) != null) {
+					builder.append('?');
+				} else {
+					value = String.valueOf(value);
+					builder.append('=').append(value.length()).append(':')
+							.append(value);
+				}
+				size++;
+			}
+		}
+		String result = null;
+		boolean foldable = true;
+		if (n.getElements() != null) {
+			for (Element item : n.getElements()) {
+				String key = getKey(item);
+				if (key == null) {
+					foldable = false;
+				} else {
+					builder.append(key);
+					size += sizes.get(item);
+				}
+			}
+		}
+		if (foldable) {
+			builder.append(n instanceof PropertyElement ? '}' : '>');
+			result = builder.toString();
+			keys.put(n, result);
+			sizes.put(n, size);
+			Integer count = counts.get(result);
+			counts.put(result, count == null ? 1 : count + 1);
+		}
+		return result;
+	}
+
+	private void select(Element n) {
+		String key = keys.get(n);
+		if (n instanceof InstanceDeclarationElement && key != null
+				&& counts.get(key) > 1 && isFoldable(sizes.get(n))) {
+			Fold fold = folds.get(key);
+			if (fold == null) {
+				fold = new Fold();
+				folds.put(key, fold);
+			}
+			fold.members.add((InstanceDeclarationElement) n);
+		} else if (n.getElements() != null) {
+			for (Element item : n.getElements()) {
+				select(item);
+			}
+		}
+	}
+
+	private boolean isFoldable(int size) {
+		// helpers must not be split again, their parameters would be lost
+		int max = options.getMaxStatements();
+		return size >= MIN_SIZE && (max <= 0 || size <= max);
+	}
+
+	private static boolean[] getVarying(
+			List<InstanceDeclarationElement> members) {
+		List<Attribute> first = getCandidates(members.get(0));
+		boolean[] varying = new boolean[first.size()];
+		for (int i = 1; i < members.size(); i++) {
+			List<Attribute> candidates = getCandidates(members.get(i));
+			for (int j = 0; j < varying.length; j++) {
+				if (!first.get(j).getValue()
+						.equals(candidates.get(j).getValue())) {
+					varying[j] = true;
+				}
+			}
+		}
+		return varying;
+	}
+
+	public static List<Attribute> getCandidates(Element n) {
+		List<Attribute> candidates = new ArrayList<>();
+		collect(n, candidates);
+		return candidates;
+	}
+
+	private static void collect(Element n, List<Attribute> candidates) {
+		boolean constant = false;
+		if (n instanceof InstanceDeclarationElement) {
+			String name = ((InstanceDeclarationElement) n).getName();
+			constant = ValueType.getValueType(name) != null
+					|| name.equals(IMAGE);
+		}
+		if (n.getAttributes() != null && !constant) {
+			for (Attribute item : n.getAttributes()) {
+				if (getParameterType(item) != null) {
+					candidates.add(item);
+				}
+			}
+		}
+		if (n.getElements() != null) {
+			for (Element item : n.getElements()) {
+				collect(item, candidates);
+			}
+		}
+	}
+
+	public static String getParameterType(Attribute n) {
+		// only values that resolve to plain literals can be passed in
+		String name = n.getName();
+		String value = n.getValue();
+		AttributeType attributeType = n.getAttributeType();
+		if (value == null || value.startsWith("%") || value.startsWith("@")
+				|| value.startsWith("$")
+				|| attributeType == AttributeType.EVENT_HANDLER
+				|| name.equals(Constants.ID_ATTRIBUTE)
+				|| name.equals(STYLE_CLASS) || name.equals(URL)
+				|| name.startsWith("max") || name.startsWith("min")
+				|| name.startsWith("pref")) {
+			return null;
+		}
+		if (name.equals(TEXT)) {
+			return PropertyIndex.STRING;
+		}
+		PropertyIndex.Property property = PropertyIndex.getProperty(name);
+		if (property != null && !property.isEnumeration()
+				&& !property.isList()) {
+			String type = property.getType();
+			if (PropertyIndex.STRING.equals(type)
+					|| PropertyIndex.BOOLEAN.equals(type)
+					|| PropertyIndex.INT.equals(type)
+					|| PropertyIndex.DOUBLE.equals(type)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+}
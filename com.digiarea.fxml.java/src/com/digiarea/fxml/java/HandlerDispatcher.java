@@ -0,0 +1,99 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.digiarea.jse.AnnotationExpr;
+import com.digiarea.jse.BinaryExpr.BinaryOperator;
+import com.digiarea.jse.BodyDeclaration;
+import com.digiarea.jse.ClassOrInterfaceType;
+import com.digiarea.jse.Expression;
+import com.digiarea.jse.MethodDeclaration;
+import com.digiarea.jse.Modifiers;
+import com.digiarea.jse.NodeFacade;
+import com.digiarea.jse.PrimitiveType.Primitive;
+import com.digiarea.jse.Statement;
+import com.digiarea.jse.Type;
+
+public class HandlerDispatcher {
+
+	private static final String JAVAFX_EVENT_HANDLER = "javafx.event.EventHandler";
+	private static final String JAVAFX_ACTION_EVENT = "javafx.event.ActionEvent";
+	private static final String JAVA_LANG_OVERRIDE = "java.lang.Override";
+	private static final String HANDLE = "handle";
+	private static final String INDEX = "index";
+	private static final String EVENT = "event";
+
+	private final String method;
+
+	public HandlerDispatcher(String methodName) {
+		super();
+		this.method = methodName + "$handler";
+	}
+
+	public Expression getHandler(int index) {
+		// create$handler(0)
+		return NodeFacade.MethodCallExpr(method, Arrays
+				.asList((Expression) NodeFacade.IntegerLiteralExpr(String
+						.valueOf(index))));
+	}
+
+	public MethodDeclaration getMethod(List<String> handlers) {
+		// private EventHandler<ActionEvent> create$handler(final int index) {
+		// return new EventHandler<ActionEvent>() {
+		// @Override public void handle(ActionEvent event) {
+		// if (index == 0) { onSave(event); } else if (index == 1) { ... }
+		// }
+		// };
+		// }
+		Statement body = null;
+		for (int i = handlers.size() - 1; i >= 0; i--) {
+			body = NodeFacade.IfStmt(NodeFacade.BinaryExpr(NodeFacade
+					.NameExpr(INDEX), NodeFacade.IntegerLiteralExpr(String
+					.valueOf(i)), BinaryOperator.equals), NodeFacade
+					.BlockStmt(Arrays.asList((Statement) NodeFacade
+							.ExpressionStmt(NodeFacade.MethodCallExpr(
+									handlers.get(i), Arrays
+											.asList((Expression) NodeFacade
+													.NameExpr(EVENT)))))),
+					body);
+		}
+		List<Statement> statements = new ArrayList<>();
+		if (body != null) {
+			statements.add(body);
+		}
+		MethodDeclaration handle = NodeFacade.MethodDeclaration(
+				Modifiers.PUBLIC, null, NodeFacade.VoidType(), HANDLE, Arrays
+						.asList(NodeFacade.Parameter(0, NodeFacade
+								.ReferenceType(NodeFacade
+										.ClassOrInterfaceType(JAVAFX_ACTION_EVENT),
+										0), null, NodeFacade
+								.VariableDeclaratorId(EVENT, null), null)),
+				null, null, NodeFacade.BlockStmt(statements), null, Arrays
+						.asList((AnnotationExpr) NodeFacade.MarkerAnnotationExpr(NodeFacade
+								.QualifiedNameExpr(JAVA_LANG_OVERRIDE))));
+		// one anonymous class per controller instead of one per handler
+		Expression dispatcher = NodeFacade.ObjectCreationExpr(null,
+				getHandlerType(), null, null,
+				Arrays.asList((BodyDeclaration) handle));
+		MethodDeclaration method = NodeFacade.MethodDeclaration(
+				Modifiers.PRIVATE, getHandlerType(), this.method);
+		method.setParameters(NodeFacade.NodeList(Arrays.asList(NodeFacade
+				.Parameter(Modifiers.FINAL, NodeFacade.PrimitiveType(
+						Primitive.Int), null, NodeFacade.VariableDeclaratorId(
+						INDEX, null), null))));
+		method.setBlock(NodeFacade.BlockStmt(Arrays
+				.asList((Statement) NodeFacade.ReturnStmt(dispatcher))));
+		return method;
+	}
+
+	private ClassOrInterfaceType getHandlerType() {
+		return NodeFacade.ClassOrInterfaceType(null, NodeFacade
+				.QualifiedNameExpr(JAVAFX_EVENT_HANDLER), Arrays
+				.asList((Type) NodeFacade.ReferenceType(
+						NodeFacade.ClassOrInterfaceType(JAVAFX_ACTION_EVENT),
+						0)));
+	}
+
+}
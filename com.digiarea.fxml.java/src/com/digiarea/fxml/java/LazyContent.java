@@ -0,0 +1,150 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.digiarea.common.utils.StringUtils;
+import com.digiarea.fxml.Element;
+import com.digiarea.fxml.InstanceDeclarationElement;
+import com.digiarea.fxml.PropertyElement;
+import com.digiarea.fxml.PropertyElement.PropertyType;
+import com.digiarea.jse.AnnotationExpr;
+import com.digiarea.jse.BinaryExpr.BinaryOperator;
+import com.digiarea.jse.BlockStmt;
+import com.digiarea.jse.BodyDeclaration;
+import com.digiarea.jse.Expression;
+import com.digiarea.jse.MethodDeclaration;
+import com.digiarea.jse.Modifiers;
+import com.digiarea.jse.NodeFacade;
+import com.digiarea.jse.Statement;
+import com.digiarea.jse.utils.NodeUtils;
+
+public class LazyContent {
+
+	private static final String CONTENT = "content";
+	private static final String JAVAFX_NODE = "javafx.scene.Node";
+	private static final String JAVAFX_INVALIDATION_LISTENER = "javafx.beans.InvalidationListener";
+	private static final String JAVAFX_OBSERVABLE = "javafx.beans.Observable";
+	private static final String JAVA_LANG_EXCEPTION = "java.lang.Exception";
+	private static final String JAVA_LANG_RUNTIME_EXCEPTION = "java.lang.RuntimeException";
+	private static final String JAVA_LANG_OVERRIDE = "java.lang.Override";
+	private static final String INVALIDATED = "invalidated";
+	private static final String ADD_LISTENER = "addListener";
+	private static final String OBSERVABLE = "observable";
+	private static final String LISTENER = "listener";
+	private static final String EXCEPTION = "e";
+
+	private static final Map<String, String> triggers = new HashMap<>();
+
+	static {
+		// content is built when the owner is first selected or expanded
+		triggers.put("Tab", "selected");
+		triggers.put("TitledPane", "expanded");
+	}
+
+	public static String getTrigger(Element parent, PropertyElement n) {
+		if (parent instanceof InstanceDeclarationElement
+				&& n.getPropertyType() != PropertyType.STATIC_PROPERTY
+				&& CONTENT.equals(n.getName())) {
+			String name = ((InstanceDeclarationElement) parent).getName();
+			return triggers.get(name.substring(name.lastIndexOf('.') + 1));
+		}
+		return null;
+	}
+
+	public static MethodDeclaration getContentMethod(String name,
+			List<Statement> statements, String identifier) {
+		// private Node create$1() throws Exception { ... return content; }
+		List<Statement> body = new ArrayList<>(statements);
+		body.add(NodeFacade.ReturnStmt(NodeFacade.NameExpr(identifier)));
+		MethodDeclaration method = NodeFacade.MethodDeclaration(
+				Modifiers.PRIVATE, NodeFacade.ClassOrInterfaceType(JAVAFX_NODE),
+				name);
+		method.setBlock(NodeFacade.BlockStmt(body));
+		method.setThrowsList(NodeFacade.NodeList(Arrays.asList(NodeFacade
+				.ClassOrInterfaceType(JAVA_LANG_EXCEPTION))));
+		return method;
+	}
+
+	public static MethodDeclaration getInstaller(String name, String type,
+			String identifier, String trigger, String content) {
+		// private void create$2(final Tab tab) {
+		// InvalidationListener listener = new InvalidationListener() {...};
+		// tab.selectedProperty().addListener(listener);
+		// listener.invalidated(null);
+		// }
+		List<Statement> statements = new ArrayList<>();
+		statements.add(NodeFacade.ExpressionStmt(NodeFacade
+				.VariableDeclarationExpr(NodeFacade
+						.ClassOrInterfaceType(JAVAFX_INVALIDATION_LISTENER),
+						LISTENER, getListener(identifier, trigger, content))));
+		statements.add(NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(
+				NodeFacade.MethodCallExpr(NodeFacade.NameExpr(identifier),
+						trigger + "Property"), null, ADD_LISTENER, Arrays
+						.asList((Expression) NodeFacade.NameExpr(LISTENER)))));
+		statements.add(NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(
+				NodeFacade.NameExpr(LISTENER), null, INVALIDATED, Arrays
+						.asList((Expression) NodeFacade.NullLiteralExpr()))));
+		MethodDeclaration method = NodeFacade.MethodDeclaration(
+				Modifiers.PRIVATE, NodeFacade.VoidType(), name);
+		method.setParameters(NodeFacade.NodeList(Arrays.asList(NodeFacade
+				.Parameter(Modifiers.FINAL, NodeFacade.ReferenceType(
+						NodeFacade.ClassOrInterfaceType(type), 0), null,
+						NodeFacade.VariableDeclaratorId(identifier, null),
+						null))));
+		method.setBlock(NodeFacade.BlockStmt(statements));
+		return method;
+	}
+
+	private static Expression getListener(String identifier, String trigger,
+			String content) {
+		// if (tab.isSelected() && tab.getContent() == null) {
+		// try { tab.setContent(create$1()); }
+		// catch (Exception e) { throw new RuntimeException(e); }
+		// }
+		Expression condition = NodeFacade.BinaryExpr(NodeFacade
+				.MethodCallExpr(NodeFacade.NameExpr(identifier), "is"
+						+ StringUtils.firstToUpper(trigger)), NodeFacade
+				.BinaryExpr(NodeUtils.getGetterCall(
+						NodeFacade.NameExpr(identifier), CONTENT, false),
+						NodeFacade.NullLiteralExpr(), BinaryOperator.equals),
+				BinaryOperator.and);
+		BlockStmt tryBlock = NodeFacade.BlockStmt(Arrays
+				.asList((Statement) NodeFacade.ExpressionStmt(NodeUtils
+						.getSetterCall(NodeFacade.NameExpr(identifier),
+								CONTENT, NodeFacade.MethodCallExpr(content,
+										new ArrayList<Expression>()), false))));
+		BlockStmt catchBlock = NodeFacade.BlockStmt(Arrays
+				.asList((Statement) NodeFacade.ThrowStmt(NodeFacade
+						.ObjectCreationExpr(NodeFacade
+								.ClassOrInterfaceType(JAVA_LANG_RUNTIME_EXCEPTION),
+								Arrays.asList((Expression) NodeFacade
+										.NameExpr(EXCEPTION))))));
+		Statement body = NodeFacade.IfStmt(condition, NodeFacade
+				.BlockStmt(Arrays.asList((Statement) NodeFacade.TryStmt(
+						tryBlock, Arrays.asList(NodeFacade.CatchClause(
+								NodeFacade.Parameter(0, NodeFacade
+										.ReferenceType(NodeFacade
+												.ClassOrInterfaceType(JAVA_LANG_EXCEPTION),
+												0), null, NodeFacade
+										.VariableDeclaratorId(EXCEPTION, null),
+										null), catchBlock)), null))), null);
+		MethodDeclaration invalidated = NodeFacade.MethodDeclaration(
+				Modifiers.PUBLIC, null, NodeFacade.VoidType(), INVALIDATED,
+				Arrays.asList(NodeFacade.Parameter(0, NodeFacade
+						.ReferenceType(NodeFacade
+								.ClassOrInterfaceType(JAVAFX_OBSERVABLE), 0),
+						null, NodeFacade.VariableDeclaratorId(OBSERVABLE, null),
+						null)), null, null, NodeFacade.BlockStmt(Arrays
+						.asList(body)), null, Arrays
+						.asList((AnnotationExpr) NodeFacade.MarkerAnnotationExpr(NodeFacade
+								.QualifiedNameExpr(JAVA_LANG_OVERRIDE))));
+		return NodeFacade.ObjectCreationExpr(null,
+				NodeFacade.ClassOrInterfaceType(JAVAFX_INVALIDATION_LISTENER),
+				null, null, Arrays.asList((BodyDeclaration) invalidated));
+	}
+
+}
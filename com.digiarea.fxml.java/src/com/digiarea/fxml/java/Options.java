@@ -0,0 +1,198 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class Options {
+
+	// a statement is about 10-25 bytes of bytecode, 300 of them keep
+	// generated methods below the HotSpot limit of 8000 bytes for compiled
+	// methods
+	public static final int DEFAULT_MAX_STATEMENTS = 300;
+
+	private int parallelism = 1;
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	private TranslationCache cache = null;
+
+	public TranslationCache getCache() {
+		return cache;
+	}
+
+	public void setCache(TranslationCache cache) {
+		this.cache = cache;
+	}
+
+	private int maxStatements = DEFAULT_MAX_STATEMENTS;
+
+	public int getMaxStatements() {
+		return maxStatements;
+	}
+
+	public void setMaxStatements(int maxStatements) {
+		this.maxStatements = maxStatements;
+	}
+
+	public enum HandlerStyle {
+		ANONYMOUS_CLASS, DISPATCHER
+	}
+
+	private HandlerStyle handlerStyle = HandlerStyle.ANONYMOUS_CLASS;
+
+	public HandlerStyle getHandlerStyle() {
+		return handlerStyle;
+	}
+
+	public void setHandlerStyle(HandlerStyle handlerStyle) {
+		this.handlerStyle = handlerStyle;
+	}
+
+	private boolean shareValues = false;
+
+	public boolean isShareValues() {
+		return shareValues;
+	}
+
+	public void setShareValues(boolean shareValues) {
+		this.shareValues = shareValues;
+	}
+
+	private String imageCache = null;
+
+	public String getImageCache() {
+		return imageCache;
+	}
+
+	public void setImageCache(String imageCache) {
+		// a static method given as qualified.Type.method
+		if (imageCache != null) {
+			int index = imageCache.lastIndexOf('.');
+			if (index <= 0 || index == imageCache.length() - 1) {
+				throw new IllegalArgumentException(
+						"Image cache must be a qualified static method: "
+								+ imageCache);
+			}
+		}
+		this.imageCache = imageCache;
+	}
+
+	private boolean backgroundImageLoading = false;
+
+	public boolean isBackgroundImageLoading() {
+		return backgroundImageLoading;
+	}
+
+	public void setBackgroundImageLoading(boolean backgroundImageLoading) {
+		this.backgroundImageLoading = backgroundImageLoading;
+	}
+
+	private boolean cacheStrings = false;
+
+	public boolean isCacheStrings() {
+		return cacheStrings;
+	}
+
+	public void setCacheStrings(boolean cacheStrings) {
+		this.cacheStrings = cacheStrings;
+	}
+
+	private boolean lazyContent = false;
+
+	public boolean isLazyContent() {
+		return lazyContent;
+	}
+
+	public void setLazyContent(boolean lazyContent) {
+		this.lazyContent = lazyContent;
+	}
+
+	private boolean inlineIncludes = false;
+
+	public boolean isInlineIncludes() {
+		return inlineIncludes;
+	}
+
+	public void setInlineIncludes(boolean inlineIncludes) {
+		this.inlineIncludes = inlineIncludes;
+	}
+
+	private TranslationListener listener = null;
+
+	public TranslationListener getListener() {
+		return listener;
+	}
+
+	public void setListener(TranslationListener listener) {
+		this.listener = listener;
+	}
+
+	public static final int DEFAULT_POOL_SIZE = 16;
+
+	private boolean recycle = false;
+
+	private int poolSize = DEFAULT_POOL_SIZE;
+
+	public boolean isRecycle() {
+		return recycle;
+	}
+
+	public void setRecycle(boolean recycle) {
+		this.recycle = recycle;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	public void setPoolSize(int poolSize) {
+		this.poolSize = poolSize;
+	}
+
+	private boolean foldSubtrees = false;
+
+	public boolean isFoldSubtrees() {
+		return foldSubtrees;
+	}
+
+	public void setFoldSubtrees(boolean foldSubtrees) {
+		this.foldSubtrees = foldSubtrees;
+	}
+
+	private boolean asyncCreate = false;
+
+	public boolean isAsyncCreate() {
+		return asyncCreate;
+	}
+
+	public void setAsyncCreate(boolean asyncCreate) {
+		this.asyncCreate = asyncCreate;
+	}
+
+	public List<String> getGeneratedMethods() {
+		// generated methods without parameters, helpers such as create$reset
+		// share their prefix, see ControllerCleaner
+		List<String> methods = new ArrayList<>();
+		methods.add("create");
+		return methods;
+	}
+
+	String getSignature() {
+		// options that change the generated code
+		return "maxStatements=" + maxStatements + ";handlerStyle="
+				+ handlerStyle + ";shareValues=" + shareValues
+				+ ";imageCache=" + imageCache + ";backgroundImageLoading="
+				+ backgroundImageLoading + ";cacheStrings=" + cacheStrings
+				+ ";lazyContent=" + lazyContent + ";inlineIncludes="
+				+ inlineIncludes + ";recycle=" + recycle + ";poolSize="
+				+ poolSize + ";foldSubtrees=" + foldSubtrees + ";asyncCreate="
+				+ asyncCreate;
+	}
+
+}
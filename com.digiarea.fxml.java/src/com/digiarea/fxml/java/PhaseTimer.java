@@ -0,0 +1,91 @@
+package com.digiarea.fxml.java;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import com.digiarea.fxml.java.TranslationListener.Phase;
+
+class PhaseTimer {
+
+	private static final String SUN_THREAD_MX_BEAN = "com.sun.management.ThreadMXBean";
+
+	// com.sun.management is not imported by the bundle, so the counter is
+	// looked up on the bean itself and a missing one is reported as -1
+	private static final Method ALLOCATED_BYTES = getAllocatedBytesMethod();
+
+	private final TranslationListener listener;
+
+	private final Phase phase;
+
+	private final String name;
+
+	private final long start;
+
+	private final long allocated;
+
+	private PhaseTimer(TranslationListener listener, Phase phase, String name) {
+		super();
+		this.listener = listener;
+		this.phase = phase;
+		this.name = name;
+		this.allocated = getAllocatedBytes();
+		this.start = System.nanoTime();
+	}
+
+	static PhaseTimer start(TranslationListener listener, Phase phase,
+			String name) {
+		return listener != null ? new PhaseTimer(listener, phase, name) : null;
+	}
+
+	static void stop(PhaseTimer timer) {
+		if (timer != null) {
+			long time = System.nanoTime() - timer.start;
+			long allocated = timer.allocated;
+			if (allocated >= 0) {
+				allocated = getAllocatedBytes() - allocated;
+			}
+			timer.listener.phaseFinished(timer.phase, timer.name, time,
+					allocated);
+		}
+	}
+
+	private static Method getAllocatedBytesMethod() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			for (Class<?> type = bean.getClass(); type != null; type = type
+					.getSuperclass()) {
+				for (Class<?> face : type.getInterfaces()) {
+					if (SUN_THREAD_MX_BEAN.equals(face.getName())) {
+						if ((Boolean) face.getMethod(
+								"isThreadAllocatedMemorySupported").invoke(bean)
+								&& (Boolean) face.getMethod(
+										"isThreadAllocatedMemoryEnabled")
+										.invoke(bean)) {
+							return face.getMethod("getThreadAllocatedBytes",
+									long.class);
+						}
+						return null;
+					}
+				}
+			}
+		} catch (Exception | LinkageError e) {
+			// no allocation counters on this VM
+		}
+		return null;
+	}
+
+	private static long getAllocatedBytes() {
+		if (ALLOCATED_BYTES != null) {
+			try {
+				return (Long) ALLOCATED_BYTES.invoke(
+						ManagementFactory.getThreadMXBean(), Thread
+								.currentThread().getId());
+			} catch (Exception e) {
+				// reported as unknown
+			}
+		}
+		return -1;
+	}
+
+}
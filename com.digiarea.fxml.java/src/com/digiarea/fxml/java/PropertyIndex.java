@@ -0,0 +1,208 @@
+package com.digiarea.fxml.java;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.digiarea.fxml.parser.Constants;
+
+public class PropertyIndex {
+
+	public static final String STRING = "java.lang.String";
+	public static final String BOOLEAN = "boolean";
+	public static final String INT = "int";
+	public static final String DOUBLE = "double";
+
+	private static final String JAVAFX_GEOMETRY_SIDE = "javafx.geometry.Side";
+	private static final String JAVAFX_OVERRUN_STYLE = "javafx.scene.control.OverrunStyle";
+	private static final String JAVAFX_TEXT_ALIGNMENT = "javafx.scene.text.TextAlignment";
+	private static final String JAVAFX_GEOMETRY_H_POS = "javafx.geometry.HPos";
+	private static final String JAVAFX_GEOMETRY_V_POS = "javafx.geometry.VPos";
+	private static final String JAVAFX_TAB_CLOSING_POLICY = "javafx.scene.control.TabPane.TabClosingPolicy";
+	private static final String JAVAFX_CONTENT_DISPLAY = "javafx.scene.control.ContentDisplay";
+	private static final String JAVAFX_SCENE_LAYOUT_PRIORITY = "javafx.scene.layout.Priority";
+	private static final String JAVAFX_GEOMETRY_POS = "javafx.geometry.Pos";
+	private static final String JAVAFX_GEOMETRY_ORIENTATION = "javafx.geometry.Orientation";
+	private static final String JAVAFX_SCROLL_BAR_POLICY = "javafx.scene.control.ScrollPane.ScrollBarPolicy";
+	private static final String JAVAFX_NODE = "javafx.scene.Node";
+
+	public static class Property {
+
+		private final String name;
+
+		private final String type;
+
+		private final boolean enumeration;
+
+		private final String elementType;
+
+		public Property(String name, String type, boolean enumeration,
+				String elementType) {
+			super();
+			this.name = name;
+			this.type = type;
+			this.enumeration = enumeration;
+			this.elementType = elementType;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getType() {
+			return type;
+		}
+
+		public boolean isEnumeration() {
+			return enumeration;
+		}
+
+		public boolean isList() {
+			return elementType != null;
+		}
+
+		public String getElementType() {
+			return elementType;
+		}
+
+	}
+
+	private static final Map<String, Property> properties = new HashMap<>();
+
+	private static final Map<String, String> constants = new HashMap<>();
+
+	static {
+		enumeration("alignment", JAVAFX_GEOMETRY_POS);
+		enumeration("contentDisplay", JAVAFX_CONTENT_DISPLAY);
+		enumeration("hgrow", JAVAFX_SCENE_LAYOUT_PRIORITY);
+		enumeration("vgrow", JAVAFX_SCENE_LAYOUT_PRIORITY);
+		enumeration("tabClosingPolicy", JAVAFX_TAB_CLOSING_POLICY);
+		enumeration("textAlignment", JAVAFX_TEXT_ALIGNMENT);
+		enumeration("halignment", JAVAFX_GEOMETRY_H_POS);
+		enumeration("valignment", JAVAFX_GEOMETRY_V_POS);
+		enumeration("columnHalignment", JAVAFX_GEOMETRY_H_POS);
+		enumeration("rowValignment", JAVAFX_GEOMETRY_V_POS);
+		enumeration("textOrigin", JAVAFX_GEOMETRY_V_POS);
+		enumeration("textOverrun", JAVAFX_OVERRUN_STYLE);
+		enumeration("side", JAVAFX_GEOMETRY_SIDE);
+		enumeration("orientation", JAVAFX_GEOMETRY_ORIENTATION);
+		enumeration("nodeOrientation", "javafx.geometry.NodeOrientation");
+		enumeration("hbarPolicy", JAVAFX_SCROLL_BAR_POLICY);
+		enumeration("vbarPolicy", JAVAFX_SCROLL_BAR_POLICY);
+		enumeration("blendMode", "javafx.scene.effect.BlendMode");
+		enumeration("cacheHint", "javafx.scene.CacheHint");
+		enumeration("depthTest", "javafx.scene.DepthTest");
+		enumeration("cursor", "javafx.scene.Cursor");
+		enumeration("fontSmoothingType", "javafx.scene.text.FontSmoothingType");
+		enumeration("strokeType", "javafx.scene.shape.StrokeType");
+		enumeration("strokeLineCap", "javafx.scene.shape.StrokeLineCap");
+		enumeration("strokeLineJoin", "javafx.scene.shape.StrokeLineJoin");
+		enumeration("fillRule", "javafx.scene.shape.FillRule");
+		enumeration("sortType",
+				"javafx.scene.control.TableColumn.SortType");
+		value("promptText", STRING);
+		value("title", STRING);
+		value("style", STRING);
+		value("ellipsisString", STRING);
+		value("accessibleText", STRING);
+		value("columnIndex", INT);
+		value("rowIndex", INT);
+		value("columnSpan", INT);
+		value("rowSpan", INT);
+		value("prefColumnCount", INT);
+		value("prefRowCount", INT);
+		value("spacing", DOUBLE);
+		value("hgap", DOUBLE);
+		value("vgap", DOUBLE);
+		value("opacity", DOUBLE);
+		value("rotate", DOUBLE);
+		value("layoutX", DOUBLE);
+		value("layoutY", DOUBLE);
+		value("translateX", DOUBLE);
+		value("translateY", DOUBLE);
+		value("scaleX", DOUBLE);
+		value("scaleY", DOUBLE);
+		value("fitWidth", DOUBLE);
+		value("fitHeight", DOUBLE);
+		value("graphicTextGap", DOUBLE);
+		value("percentWidth", DOUBLE);
+		value("percentHeight", DOUBLE);
+		value("leftAnchor", DOUBLE);
+		value("rightAnchor", DOUBLE);
+		value("topAnchor", DOUBLE);
+		value("bottomAnchor", DOUBLE);
+		value("disable", BOOLEAN);
+		value("visible", BOOLEAN);
+		value("managed", BOOLEAN);
+		value("editable", BOOLEAN);
+		value("wrapText", BOOLEAN);
+		value("mnemonicParsing", BOOLEAN);
+		value("focusTraversable", BOOLEAN);
+		value("selected", BOOLEAN);
+		value("underline", BOOLEAN);
+		value("defaultButton", BOOLEAN);
+		value("cancelButton", BOOLEAN);
+		value("closable", BOOLEAN);
+		value("expanded", BOOLEAN);
+		value("animated", BOOLEAN);
+		value("collapsible", BOOLEAN);
+		value("fillWidth", BOOLEAN);
+		value("fillHeight", BOOLEAN);
+		value("pickOnBounds", BOOLEAN);
+		value("preserveRatio", BOOLEAN);
+		value("smooth", BOOLEAN);
+		value("cache", BOOLEAN);
+		value("gridLinesVisible", BOOLEAN);
+		value("fitToWidth", BOOLEAN);
+		value("fitToHeight", BOOLEAN);
+		list("children", JAVAFX_NODE);
+		list("columnConstraints", "javafx.scene.layout.ColumnConstraints");
+		list("rowConstraints", "javafx.scene.layout.RowConstraints");
+		list("tabs", "javafx.scene.control.Tab");
+		list("items", "javafx.scene.control.MenuItem");
+		list("columns", "javafx.scene.control.TableColumn");
+		list("menus", "javafx.scene.control.Menu");
+		list("panes", "javafx.scene.control.TitledPane");
+		list("buttons", JAVAFX_NODE);
+		list("transforms", "javafx.scene.transform.Transform");
+		list("elements", "javafx.scene.shape.PathElement");
+		list("sortOrder", "javafx.scene.control.TableColumn");
+		// values guessed for properties that are not in the index
+		for (Constants.Priority constant : Constants.Priority.values()) {
+			constants.put(constant.name(), JAVAFX_SCENE_LAYOUT_PRIORITY);
+		}
+		for (Constants.TabClosingPolicy constant : Constants.TabClosingPolicy
+				.values()) {
+			if (!constants.containsKey(constant.name())) {
+				constants.put(constant.name(), JAVAFX_TAB_CLOSING_POLICY);
+			}
+		}
+		for (Constants.Pos constant : Constants.Pos.values()) {
+			if (!constants.containsKey(constant.name())) {
+				constants.put(constant.name(), JAVAFX_GEOMETRY_POS);
+			}
+		}
+	}
+
+	private static void enumeration(String name, String type) {
+		properties.put(name, new Property(name, type, true, null));
+	}
+
+	private static void value(String name, String type) {
+		properties.put(name, new Property(name, type, false, null));
+	}
+
+	private static void list(String name, String elementType) {
+		properties.put(name, new Property(name, null, false, elementType));
+	}
+
+	public static Property getProperty(String name) {
+		// static properties are looked up by their local name
+		int index = name.lastIndexOf('.');
+		return properties.get(index != -1 ? name.substring(index + 1) : name);
+	}
+
+	public static String getConstantType(String value) {
+		return constants.get(value);
+	}
+
+}
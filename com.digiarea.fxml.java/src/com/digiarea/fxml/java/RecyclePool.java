@@ -0,0 +1,126 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.digiarea.jse.AssignExpr.AssignOperator;
+import com.digiarea.jse.BinaryExpr.BinaryOperator;
+import com.digiarea.jse.BodyDeclaration;
+import com.digiarea.jse.ClassOrInterfaceType;
+import com.digiarea.jse.Expression;
+import com.digiarea.jse.MethodDeclaration;
+import com.digiarea.jse.Modifiers;
+import com.digiarea.jse.NodeFacade;
+import com.digiarea.jse.Statement;
+import com.digiarea.jse.Type;
+
+public class RecyclePool {
+
+	private static final String JAVA_UTIL_CONCURRENT_ARRAY_BLOCKING_QUEUE = "java.util.concurrent.ArrayBlockingQueue";
+	private static final String POLL = "poll";
+	private static final String OFFER = "offer";
+
+	private final String pool;
+
+	private final String root;
+
+	private final String reset;
+
+	private final String acquire;
+
+	private final String release;
+
+	public RecyclePool(String methodName) {
+		super();
+		this.pool = methodName.toUpperCase() + "$POOL";
+		this.root = methodName + "$root";
+		// prefixed so that they never clash with methods of the controller
+		this.reset = methodName + "$reset";
+		this.acquire = methodName + "$acquire";
+		this.release = methodName + "$release";
+	}
+
+	public String getRoot() {
+		return root;
+	}
+
+	public Statement getGuard() {
+		// if (create$root != null) { return create$root; }
+		return NodeFacade.IfStmt(NodeFacade.BinaryExpr(
+				NodeFacade.NameExpr(root), NodeFacade.NullLiteralExpr(),
+				BinaryOperator.notEquals), NodeFacade.BlockStmt(Arrays
+				.asList((Statement) NodeFacade.ReturnStmt(NodeFacade
+						.NameExpr(root)))), null);
+	}
+
+	public Statement getAssignment(String identifier) {
+		// create$root = root;
+		return NodeFacade.ExpressionStmt(NodeFacade.AssignExpr(
+				NodeFacade.NameExpr(root), NodeFacade.NameExpr(identifier),
+				AssignOperator.assign));
+	}
+
+	public Statement getDeclaration(ClassOrInterfaceType type,
+			String identifier) {
+		// Root root = create$root;
+		return NodeFacade.ExpressionStmt(NodeFacade.VariableDeclarationExpr(
+				type, identifier, NodeFacade.NameExpr(root)));
+	}
+
+	public List<BodyDeclaration> getMembers(String controller,
+			ClassOrInterfaceType type, List<Statement> resets, int size) {
+		List<BodyDeclaration> members = new ArrayList<>();
+		ClassOrInterfaceType controllerType = NodeFacade
+				.ClassOrInterfaceType(controller);
+		// private static final ArrayBlockingQueue<Controller> CREATE$POOL =
+		// new ArrayBlockingQueue<Controller>(size);
+		members.add(NodeFacade.FieldDeclaration(Modifiers.PRIVATE
+				| Modifiers.STATIC | Modifiers.FINAL, getQueueType(controller),
+				Arrays.asList(NodeFacade.VariableDeclarator(NodeFacade
+						.VariableDeclaratorId(pool, null), NodeFacade
+						.ObjectCreationExpr(getQueueType(controller), Arrays
+								.asList((Expression) NodeFacade
+										.IntegerLiteralExpr(String
+												.valueOf(size))))))));
+		// private Root create$root;
+		members.add(NodeFacade.FieldDeclaration(Modifiers.PRIVATE, type,
+				Arrays.asList(NodeFacade.VariableDeclarator(
+						NodeFacade.VariableDeclaratorId(root, null), null))));
+		// public void create$reset() { ... }
+		MethodDeclaration reset = NodeFacade.MethodDeclaration(
+				Modifiers.PUBLIC, NodeFacade.VoidType(), this.reset);
+		reset.setBlock(NodeFacade.BlockStmt(resets));
+		members.add(reset);
+		// public static Controller create$acquire() {
+		// return CREATE$POOL.poll(); }
+		MethodDeclaration acquire = NodeFacade.MethodDeclaration(
+				Modifiers.PUBLIC | Modifiers.STATIC, controllerType,
+				this.acquire);
+		acquire.setBlock(NodeFacade.BlockStmt(Arrays
+				.asList((Statement) NodeFacade.ReturnStmt(NodeFacade
+						.MethodCallExpr(NodeFacade.NameExpr(pool), POLL)))));
+		members.add(acquire);
+		// public void create$release() { create$reset();
+		// CREATE$POOL.offer(this); }
+		List<Statement> statements = new ArrayList<>();
+		statements.add(NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(
+				this.reset, new ArrayList<Expression>())));
+		statements.add(NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(
+				NodeFacade.NameExpr(pool), null, OFFER,
+				Arrays.asList((Expression) NodeFacade.ThisExpr()))));
+		MethodDeclaration release = NodeFacade.MethodDeclaration(
+				Modifiers.PUBLIC, NodeFacade.VoidType(), this.release);
+		release.setBlock(NodeFacade.BlockStmt(statements));
+		members.add(release);
+		return members;
+	}
+
+	private ClassOrInterfaceType getQueueType(String controller) {
+		return NodeFacade.ClassOrInterfaceType(null, NodeFacade
+				.QualifiedNameExpr(JAVA_UTIL_CONCURRENT_ARRAY_BLOCKING_QUEUE),
+				Arrays.asList((Type) NodeFacade.ReferenceType(
+						NodeFacade.ClassOrInterfaceType(controller), 0)));
+	}
+
+}
@@ -0,0 +1,138 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import com.digiarea.jse.AssignExpr.AssignOperator;
+import com.digiarea.jse.BinaryExpr.BinaryOperator;
+import com.digiarea.jse.BodyDeclaration;
+import com.digiarea.jse.ClassOrInterfaceType;
+import com.digiarea.jse.Expression;
+import com.digiarea.jse.FieldDeclaration;
+import com.digiarea.jse.MethodDeclaration;
+import com.digiarea.jse.Modifiers;
+import com.digiarea.jse.NodeFacade;
+import com.digiarea.jse.Statement;
+import com.digiarea.jse.Type;
+
+public class ResourceStrings {
+
+	private static final String JAVA_LANG_STRING = "java.lang.String";
+	private static final String JAVA_UTIL_MAP = "java.util.Map";
+	private static final String JAVA_UTIL_WEAK_HASH_MAP = "java.util.WeakHashMap";
+	private static final String JAVA_UTIL_COLLECTIONS = "java.util.Collections";
+	private static final String JAVA_UTIL_RESOURCE_BUNDLE = "java.util.ResourceBundle";
+	private static final String SYNCHRONIZED_MAP = "synchronizedMap";
+	private static final String GET_STRING = "getString";
+	private static final String GET = "get";
+	private static final String PUT = "put";
+	private static final String STRINGS = "strings";
+	private static final String VALUES = "values";
+
+	private final String bundle;
+
+	private final String table;
+
+	private final String field;
+
+	private final String method;
+
+	public ResourceStrings(String methodName, String bundle) {
+		super();
+		this.bundle = bundle;
+		this.table = methodName.toUpperCase() + "$STRINGS";
+		this.field = methodName + "$strings";
+		this.method = methodName + "$resolve";
+	}
+
+	public Expression getString(int index) {
+		return NodeFacade.ArrayAccessExpr(NodeFacade.NameExpr(field),
+				NodeFacade.IntegerLiteralExpr(String.valueOf(index)));
+	}
+
+	public Statement getInitializer() {
+		// create$strings = create$resolve(bundle);
+		return NodeFacade.ExpressionStmt(NodeFacade.AssignExpr(NodeFacade
+				.NameExpr(field), NodeFacade.MethodCallExpr(method, Arrays
+				.asList((Expression) NodeFacade.NameExpr(bundle))),
+				AssignOperator.assign));
+	}
+
+	public List<BodyDeclaration> getMembers(Collection<String> keys) {
+		List<BodyDeclaration> members = new ArrayList<>();
+		// private static final Map<ResourceBundle, String[]> CREATE$STRINGS =
+		// Collections.synchronizedMap(new WeakHashMap<ResourceBundle, String[]>());
+		Expression map = NodeFacade.ObjectCreationExpr(
+				getMapType(JAVA_UTIL_WEAK_HASH_MAP),
+				new ArrayList<Expression>());
+		map = NodeFacade.MethodCallExpr(
+				NodeFacade.QualifiedNameExpr(JAVA_UTIL_COLLECTIONS), null,
+				SYNCHRONIZED_MAP, Arrays.asList(map));
+		members.add(NodeFacade.FieldDeclaration(Modifiers.PRIVATE
+				| Modifiers.STATIC | Modifiers.FINAL,
+				getMapType(JAVA_UTIL_MAP), Arrays.asList(NodeFacade
+						.VariableDeclarator(
+								NodeFacade.VariableDeclaratorId(table, null),
+								map))));
+		// private String[] create$strings;
+		members.add(NodeFacade.FieldDeclaration(Modifiers.PRIVATE,
+				getArrayType(), Arrays.asList(NodeFacade.VariableDeclarator(
+						NodeFacade.VariableDeclaratorId(field, null), null))));
+		members.add(getResolver(keys));
+		return members;
+	}
+
+	private MethodDeclaration getResolver(Collection<String> keys) {
+		// strings are resolved once per bundle, i.e. once per locale
+		List<Statement> statements = new ArrayList<>();
+		statements.add(NodeFacade.ExpressionStmt(NodeFacade
+				.VariableDeclarationExpr(getArrayType(), STRINGS, NodeFacade
+						.MethodCallExpr(NodeFacade.NameExpr(table), null, GET,
+								Arrays.asList((Expression) NodeFacade
+										.NameExpr(bundle))))));
+		List<Expression> values = new ArrayList<>();
+		for (String key : keys) {
+			values.add(NodeFacade.MethodCallExpr(NodeFacade.NameExpr(bundle),
+					null, GET_STRING, Arrays.asList((Expression) NodeFacade
+							.StringLiteralExpr(key))));
+		}
+		List<Statement> resolve = new ArrayList<>();
+		resolve.add(NodeFacade.ExpressionStmt(NodeFacade
+				.VariableDeclarationExpr(getArrayType(), VALUES,
+						NodeFacade.ArrayInitializerExpr(values))));
+		resolve.add(NodeFacade.ExpressionStmt(NodeFacade.MethodCallExpr(
+				NodeFacade.NameExpr(table), null, PUT, Arrays.asList(
+						(Expression) NodeFacade.NameExpr(bundle),
+						NodeFacade.NameExpr(VALUES)))));
+		resolve.add(NodeFacade.ReturnStmt(NodeFacade.NameExpr(VALUES)));
+		statements.add(NodeFacade.IfStmt(NodeFacade.BinaryExpr(
+				NodeFacade.NameExpr(STRINGS), NodeFacade.NullLiteralExpr(),
+				BinaryOperator.equals), NodeFacade.BlockStmt(resolve), null));
+		statements.add(NodeFacade.ReturnStmt(NodeFacade.NameExpr(STRINGS)));
+		MethodDeclaration resolver = NodeFacade.MethodDeclaration(
+				Modifiers.PRIVATE | Modifiers.STATIC, getArrayType(), method);
+		resolver.setParameters(NodeFacade.NodeList(Arrays.asList(NodeFacade
+				.Parameter(0, NodeFacade.ReferenceType(
+						NodeFacade.ClassOrInterfaceType(JAVA_UTIL_RESOURCE_BUNDLE),
+						0), null, NodeFacade.VariableDeclaratorId(bundle, null),
+						null))));
+		resolver.setBlock(NodeFacade.BlockStmt(statements));
+		return resolver;
+	}
+
+	private Type getArrayType() {
+		return NodeFacade.ReferenceType(
+				NodeFacade.ClassOrInterfaceType(JAVA_LANG_STRING), 1);
+	}
+
+	private ClassOrInterfaceType getMapType(String name) {
+		return NodeFacade.ClassOrInterfaceType(null, NodeFacade
+				.QualifiedNameExpr(name), Arrays.asList(NodeFacade
+				.ReferenceType(NodeFacade
+						.ClassOrInterfaceType(JAVA_UTIL_RESOURCE_BUNDLE), 0),
+				getArrayType()));
+	}
+
+}
@@ -0,0 +1,97 @@
+package com.digiarea.fxml.java;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+public class ScannerIndex {
+
+	private static final int MAGIC = 0x46584d4c;
+
+	private static final int VERSION = 1;
+
+	private static final int NULL = -1;
+
+	public static void write(Path file, Context ctx) throws IOException {
+		Map<String, String> controllers = ctx.getControllers();
+		Map<String, String> factories = ctx.getFactoryNames();
+		Set<String> keys = new TreeSet<>(controllers.keySet());
+		keys.addAll(factories.keySet());
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(keys.size());
+			for (String key : keys) {
+				writeString(out, key);
+				writeString(out, controllers.get(key));
+				writeString(out, factories.get(key));
+			}
+		}
+	}
+
+	public static boolean read(Path file, Context ctx) throws IOException {
+		if (!Files.isRegularFile(file)) {
+			return false;
+		}
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			ByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0,
+					channel.size());
+			if (buffer.remaining() < 12 || buffer.getInt() != MAGIC
+					|| buffer.getInt() != VERSION) {
+				return false;
+			}
+			int count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				String key = readString(buffer);
+				String controller = readString(buffer);
+				String factory = readString(buffer);
+				ctx.putController(key, controller);
+				if (factory != null) {
+					ctx.putFactory(key, factory);
+				}
+			}
+			return true;
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Broken scanner index: " + file, e);
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String value)
+			throws IOException {
+		if (value == null) {
+			out.writeInt(NULL);
+		} else {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length == NULL) {
+			return null;
+		}
+		if (length < 0 || length > buffer.remaining()) {
+			// reported as a broken index by read()
+			throw new BufferUnderflowException();
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
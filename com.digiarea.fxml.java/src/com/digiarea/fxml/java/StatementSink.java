@@ -0,0 +1,87 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.digiarea.jse.Statement;
+
+public class StatementSink {
+
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private Statement[] statements;
+
+	private int size = 0;
+
+	// chunk starts of the elements being generated, used for splitting
+	private int[] marks = new int[16];
+
+	private int markCount = 0;
+
+	public StatementSink() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public StatementSink(int capacity) {
+		super();
+		this.statements = new Statement[Math.max(capacity, 1)];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void add(Statement statement) {
+		if (size == statements.length) {
+			statements = Arrays.copyOf(statements, size << 1);
+		}
+		statements[size++] = statement;
+	}
+
+	public void addAll(List<Statement> list) {
+		for (Statement statement : list) {
+			add(statement);
+		}
+	}
+
+	public List<Statement> drain(int from) {
+		// statements that move to their own method
+		List<Statement> result = new ArrayList<>(size - from);
+		for (int i = from; i < size; i++) {
+			result.add(statements[i]);
+		}
+		truncate(from);
+		return result;
+	}
+
+	public void truncate(int from) {
+		Arrays.fill(statements, from, size, null);
+		size = from;
+	}
+
+	public void mark(int position) {
+		if (markCount == marks.length) {
+			marks = Arrays.copyOf(marks, markCount << 1);
+		}
+		marks[markCount++] = position;
+	}
+
+	public int getMarkCount() {
+		return markCount;
+	}
+
+	public int getMark(int index) {
+		return marks[index];
+	}
+
+	public void resetMarks(int count) {
+		markCount = count;
+	}
+
+	public void clear() {
+		truncate(0);
+		markCount = 0;
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.digiarea.fxml.java;
+
+import java.io.Serializable;
+import java.util.List;
+
+import com.digiarea.jse.BodyDeclaration;
+import com.digiarea.jse.ImportDeclaration;
+import com.digiarea.jse.MethodDeclaration;
+
+class Translation implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String controller;
+
+	private final MethodDeclaration method;
+
+	private final List<BodyDeclaration> members;
+
+	private final List<ImportDeclaration> imports;
+
+	private final int elements;
+
+	private final int attributes;
+
+	private final int statements;
+
+	public Translation(String controller, MethodDeclaration method,
+			List<BodyDeclaration> members, List<ImportDeclaration> imports,
+			int elements, int attributes, int statements) {
+		super();
+		this.controller = controller;
+		this.method = method;
+		this.members = members;
+		this.imports = imports;
+		this.elements = elements;
+		this.attributes = attributes;
+		this.statements = statements;
+	}
+
+	public String getController() {
+		return controller;
+	}
+
+	public MethodDeclaration getMethod() {
+		return method;
+	}
+
+	public List<BodyDeclaration> getMembers() {
+		return members;
+	}
+
+	public List<ImportDeclaration> getImports() {
+		return imports;
+	}
+
+	public int getElements() {
+		return elements;
+	}
+
+	public int getAttributes() {
+		return attributes;
+	}
+
+	public int getStatements() {
+		return statements;
+	}
+
+}
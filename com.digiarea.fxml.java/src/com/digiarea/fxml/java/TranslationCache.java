@@ -0,0 +1,203 @@
+package com.digiarea.fxml.java;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.digiarea.fxml.Fxml;
+
+public class TranslationCache {
+
+	// must be changed whenever the generated code changes
+	private static final String VERSION = "9";
+
+	private static final String SUFFIX = ".ser";
+
+	private static final String DIGEST = "SHA-1";
+
+	private static final String AST_PACKAGE = "com.digiarea.jse.";
+
+	// entries hold a translation, its AST nodes and the collections of them
+	private static final Set<String> ALLOWED = new HashSet<>(Arrays.asList(
+			Translation.class.getName(), "java.lang.Boolean",
+			"java.lang.Enum", "java.lang.Integer", "java.lang.Number",
+			"java.lang.String", "java.util.ArrayList", "java.util.LinkedList",
+			"java.util.Arrays$ArrayList", "java.util.Collections$EmptyList",
+			"java.util.Collections$UnmodifiableCollection",
+			"java.util.Collections$UnmodifiableList",
+			"java.util.Collections$UnmodifiableRandomAccessList"));
+
+	private final Path directory;
+
+	private final Map<String, String> keys = new ConcurrentHashMap<>();
+
+	private final Set<String> used = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+	public TranslationCache(Path directory) throws IOException {
+		super();
+		this.directory = directory;
+		Files.createDirectories(directory);
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	String getKey(Fxml n, Context ctx, String signature) throws Exception {
+		MessageDigest digest = MessageDigest.getInstance(DIGEST);
+		FXMLHasher.update(digest, VERSION, signature,
+				getKey(n, ctx, new HashSet<String>()));
+		return toHex(digest.digest());
+	}
+
+	private String getKey(Fxml n, Context ctx, Set<String> visiting)
+			throws Exception {
+		String name = n.getName() + ".fxml";
+		String key = keys.get(name);
+		if (key == null) {
+			visiting.add(name);
+			MessageDigest digest = MessageDigest.getInstance(DIGEST);
+			FXMLHasher hasher = new FXMLHasher();
+			n.accept(hasher, digest);
+			// includers are invalidated together with the included documents
+			for (String source : hasher.getSources()) {
+				Fxml included = ctx.getDocument(source);
+				if (included != null && !visiting.contains(source)) {
+					FXMLHasher.update(digest, source,
+							getKey(included, ctx, visiting));
+				} else {
+					FXMLHasher.update(digest, source,
+							ctx.getController(source),
+							ctx.getFactoryName(source));
+				}
+			}
+			key = toHex(digest.digest());
+			keys.put(name, key);
+			visiting.remove(name);
+		}
+		return key;
+	}
+
+	void reset() {
+		// documents changed, the keys are computed again
+		keys.clear();
+	}
+
+	Translation get(String key) throws IOException {
+		Path file = directory.resolve(key + SUFFIX);
+		if (Files.isRegularFile(file)) {
+			try (ObjectInputStream in = new EntryInputStream(
+					new BufferedInputStream(Files.newInputStream(file)))) {
+				Translation translation = (Translation) in.readObject();
+				used.add(key);
+				return translation;
+			} catch (IOException | ClassNotFoundException | ClassCastException e) {
+				// broken or incompatible entry, translate again
+				deleteQuietly(file);
+				throw new IOException("Can not read cache entry " + file, e);
+			}
+		}
+		return null;
+	}
+
+	void put(String key, Translation translation) throws IOException {
+		Path temp = Files.createTempFile(directory, key, ".tmp");
+		try {
+			try (ObjectOutputStream out = new ObjectOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp)))) {
+				out.writeObject(translation);
+			}
+			Files.move(temp, directory.resolve(key + SUFFIX),
+					StandardCopyOption.REPLACE_EXISTING);
+			used.add(key);
+		} catch (IOException e) {
+			deleteQuietly(temp);
+			throw e;
+		}
+	}
+
+	public void prune() throws IOException {
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(
+				directory, "*" + SUFFIX)) {
+			for (Path file : stream) {
+				String name = file.getFileName().toString();
+				if (!used.contains(name.substring(0,
+						name.length() - SUFFIX.length()))) {
+					Files.deleteIfExists(file);
+				}
+			}
+		}
+	}
+
+	private static boolean isAllowed(String name) {
+		// arrays are checked by their component type
+		int dimensions = 0;
+		while (name.charAt(dimensions) == '[') {
+			dimensions++;
+		}
+		if (dimensions > 0) {
+			if (name.charAt(dimensions) != 'L') {
+				return true;
+			}
+			name = name.substring(dimensions + 1, name.length() - 1);
+		}
+		if (name.startsWith(AST_PACKAGE)) {
+			return name.indexOf('.', AST_PACKAGE.length()) < 0;
+		}
+		return ALLOWED.contains(name);
+	}
+
+	private static class EntryInputStream extends ObjectInputStream {
+
+		public EntryInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc)
+				throws IOException, ClassNotFoundException {
+			// the directory may be shared, nothing else is deserialized
+			if (!isAllowed(desc.getName())) {
+				throw new InvalidClassException(desc.getName(),
+						"not allowed in a translation cache entry");
+			}
+			return super.resolveClass(desc);
+		}
+
+	}
+
+	private static void deleteQuietly(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			// nothing to do
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+			builder.append(Character.forDigit(b & 0xF, 16));
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,361 @@
+package com.digiarea.fxml.java;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.digiarea.fxml.Fxml;
+import com.digiarea.jse.builder.ModelHierarchy;
+
+public class TranslationDaemon implements Closeable {
+
+	public interface Loader {
+
+		public Fxml load(Path file) throws Exception;
+
+	}
+
+	public interface Handler {
+
+		// called with the controllers that got a new create() method
+		public void translated(Set<String> controllers) throws Exception;
+
+		public void failed(Exception e);
+
+	}
+
+	private static final String SUFFIX = ".fxml";
+	private static final String TRANSLATE = "TRANSLATE";
+	private static final String STOP = "STOP";
+	private static final String OK = "OK";
+	private static final String ERROR = "ERROR";
+	private static final int TIMEOUT = 10000;
+	private static final String OWNER_ONLY = "rw-------";
+
+	private final ModelHierarchy hierarchy;
+
+	private final Options options;
+
+	private final Loader loader;
+
+	private final Handler handler;
+
+	// scanned documents stay in memory between the requests
+	private final Context ctx = new Context();
+
+	private final FXMLScanner scanner;
+
+	private final WatchService watcher;
+
+	private final Map<WatchKey, Path> directories = new HashMap<>();
+
+	private final Map<Path, String> names = new HashMap<>();
+
+	private final Set<String> documents = new LinkedHashSet<>();
+
+	// only files below the registered roots are translated on request
+	private final Set<Path> roots = new LinkedHashSet<>();
+
+	private ServerSocket server = null;
+
+	private Path tokenFile = null;
+
+	private String token = null;
+
+	private volatile boolean running = true;
+
+	public TranslationDaemon(ModelHierarchy hierarchy, Options options,
+			Loader loader, Handler handler) throws IOException {
+		super();
+		this.hierarchy = hierarchy;
+		this.options = options;
+		this.loader = loader;
+		this.handler = handler;
+		this.scanner = new FXMLScanner(options.getListener());
+		this.watcher = FileSystems.getDefault().newWatchService();
+	}
+
+	public synchronized Set<String> register(Path root) throws Exception {
+		roots.add(root.toAbsolutePath().normalize());
+		return scan(root);
+	}
+
+	private Set<String> scan(Path root) throws Exception {
+		final List<Path> found = new ArrayList<>();
+		Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir,
+					BasicFileAttributes attrs) throws IOException {
+				directories.put(dir.register(watcher, ENTRY_CREATE,
+						ENTRY_MODIFY, ENTRY_DELETE), dir);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult visitFile(Path file,
+					BasicFileAttributes attrs) throws IOException {
+				if (isDocument(file)) {
+					found.add(file);
+				}
+				return FileVisitResult.CONTINUE;
+			}
+
+		});
+		return translate(found);
+	}
+
+	public synchronized Set<String> translate(Collection<Path> changed)
+			throws Exception {
+		Set<String> affected = new LinkedHashSet<>();
+		for (Path item : changed) {
+			Path file = item.toAbsolutePath().normalize();
+			String name = names.get(file);
+			if (Files.isRegularFile(file)) {
+				Fxml document = loader.load(file);
+				document.accept(scanner, ctx);
+				name = document.getName() + SUFFIX;
+				names.put(file, name);
+				documents.add(name);
+			} else if (name != null) {
+				names.remove(file);
+				documents.remove(name);
+			}
+			if (name != null) {
+				collect(name, affected);
+			}
+		}
+		if (options.getCache() != null) {
+			options.getCache().reset();
+		}
+		Set<String> methods = new HashSet<>(options.getGeneratedMethods());
+		Map<String, Set<String>> controllers = new HashMap<>();
+		for (String name : affected) {
+			String controller = ctx.getController(name);
+			if (controller != null) {
+				controllers.put(controller, methods);
+			}
+		}
+		// previous create() methods go away before the new ones are added
+		hierarchy.getProject().accept(new ControllerCleaner(controllers),
+				new com.digiarea.jse.arrow.Context());
+		FXML2JFX translator = new FXML2JFX(hierarchy, options);
+		for (String name : affected) {
+			if (documents.contains(name)) {
+				ctx.getDocument(name).accept(translator, ctx);
+			}
+		}
+		handler.translated(controllers.keySet());
+		return affected;
+	}
+
+	private void collect(String name, Set<String> affected) {
+		if (affected.add(name)) {
+			for (String includer : ctx.getIncluders(name)) {
+				collect(includer, affected);
+			}
+		}
+	}
+
+	public void watch() throws IOException {
+		while (running) {
+			WatchKey key;
+			try {
+				key = watcher.take();
+			} catch (InterruptedException | ClosedWatchServiceException e) {
+				break;
+			}
+			Set<Path> changed = new LinkedHashSet<>();
+			List<Path> created = new ArrayList<>();
+			// one save usually raises several events, they are handled
+			// together
+			while (key != null) {
+				Path dir = directories.get(key);
+				for (WatchEvent<?> event : key.pollEvents()) {
+					if (event.kind() == OVERFLOW || dir == null) {
+						continue;
+					}
+					Path file = dir.resolve((Path) event.context());
+					if (event.kind() == ENTRY_CREATE
+							&& Files.isDirectory(file)) {
+						created.add(file);
+					} else if (isDocument(file)) {
+						changed.add(file);
+					}
+				}
+				if (!key.reset()) {
+					directories.remove(key);
+				}
+				key = watcher.poll();
+			}
+			try {
+				for (Path dir : created) {
+					synchronized (this) {
+						scan(dir);
+					}
+				}
+				if (!changed.isEmpty()) {
+					translate(changed);
+				}
+			} catch (Exception e) {
+				handler.failed(e);
+			}
+		}
+	}
+
+	public void serve(int port, Path tokenFile) throws IOException {
+		// every local user can connect, only the owner of the token file
+		// can send requests
+		token = createToken();
+		writeToken(tokenFile, token);
+		this.tokenFile = tokenFile;
+		server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+		while (running) {
+			try (Socket socket = server.accept()) {
+				// a client that sends nothing must not block the daemon
+				socket.setSoTimeout(TIMEOUT);
+				BufferedReader in = new BufferedReader(new InputStreamReader(
+						socket.getInputStream(), StandardCharsets.UTF_8));
+				BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+						socket.getOutputStream(), StandardCharsets.UTF_8));
+				out.write(handle(in.readLine()));
+				out.newLine();
+				out.flush();
+			} catch (IOException e) {
+				if (running) {
+					handler.failed(e);
+				}
+			}
+		}
+	}
+
+	private static String createToken() {
+		byte[] bytes = new byte[16];
+		new SecureRandom().nextBytes(bytes);
+		StringBuilder builder = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			builder.append(Character.forDigit((b >> 4) & 0xF, 16));
+			builder.append(Character.forDigit(b & 0xF, 16));
+		}
+		return builder.toString();
+	}
+
+	private static void writeToken(Path file, String token)
+			throws IOException {
+		Files.deleteIfExists(file);
+		try {
+			Files.createFile(file, PosixFilePermissions
+					.asFileAttribute(PosixFilePermissions.fromString(OWNER_ONLY)));
+		} catch (UnsupportedOperationException e) {
+			// not a POSIX file system, the directory has to be private
+			Files.createFile(file);
+		}
+		Files.write(file, token.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String handle(String line) throws IOException {
+		// <token> TRANSLATE file[<path separator>file...] or <token> STOP,
+		// file names may contain spaces
+		if (line == null || line.trim().isEmpty()) {
+			return ERROR + " empty request";
+		}
+		String request = line.trim();
+		int index = request.indexOf(' ');
+		String key = index < 0 ? request : request.substring(0, index);
+		if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8),
+				key.getBytes(StandardCharsets.UTF_8))) {
+			return ERROR + " invalid token";
+		}
+		request = index < 0 ? "" : request.substring(index + 1).trim();
+		index = request.indexOf(' ');
+		String command = index < 0 ? request : request.substring(0, index);
+		if (STOP.equals(command)) {
+			close();
+			return OK;
+		} else if (TRANSLATE.equals(command)) {
+			List<Path> files = new ArrayList<>();
+			if (index >= 0) {
+				for (String item : request.substring(index + 1).split(
+						File.pathSeparator)) {
+					if (!item.trim().isEmpty()) {
+						Path file = Paths.get(item.trim()).toAbsolutePath()
+								.normalize();
+						if (!isRegistered(file)) {
+							return ERROR + " not below a registered root "
+									+ file;
+						}
+						files.add(file);
+					}
+				}
+			}
+			try {
+				return OK + " " + translate(files).size();
+			} catch (Exception e) {
+				handler.failed(e);
+				return ERROR + " " + e.getMessage();
+			}
+		}
+		return ERROR + " unknown request " + command;
+	}
+
+	private synchronized boolean isRegistered(Path file) {
+		for (Path root : roots) {
+			if (file.startsWith(root)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isDocument(Path file) {
+		return file.getFileName().toString().endsWith(SUFFIX);
+	}
+
+	@Override
+	public void close() throws IOException {
+		running = false;
+		watcher.close();
+		if (server != null) {
+			server.close();
+		}
+		if (tokenFile != null) {
+			Files.deleteIfExists(tokenFile);
+		}
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.digiarea.fxml.java;
+
+public interface TranslationListener {
+
+	public enum Phase {
+		SCAN, GENERATE, IMPORTS, INSERT, CLEAN
+	}
+
+	// time is in nanoseconds, allocated is in bytes or -1 if the JVM can not
+	// measure it; called from the worker threads when translating in parallel
+	public void phaseFinished(Phase phase, String name, long time,
+			long allocated);
+
+	// also called when the translation is taken from the cache
+	public void documentTranslated(String name, int elements, int attributes,
+			int statements);
+
+	// the document is translated anyway, the cache entry is missing
+	public void cacheFailed(String name, Exception e);
+
+}
@@ -0,0 +1,58 @@
+package com.digiarea.fxml.java;
+
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import com.digiarea.fxml.Fxml;
+
+class TranslationTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	private final FXML2JFX translator;
+
+	private final Context ctx;
+
+	private final List<Fxml> fxmls;
+
+	private final Translation[] translations;
+
+	private final Exception[] errors;
+
+	private final int from;
+
+	private final int to;
+
+	public TranslationTask(FXML2JFX translator, Context ctx, List<Fxml> fxmls,
+			Translation[] translations, Exception[] errors, int from, int to) {
+		super();
+		this.translator = translator;
+		this.ctx = ctx;
+		this.fxmls = fxmls;
+		this.translations = translations;
+		this.errors = errors;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > 1) {
+			int middle = (from + to) >>> 1;
+			invokeAll(new TranslationTask(translator, ctx, fxmls, translations,
+					errors, from, middle), new TranslationTask(translator, ctx,
+					fxmls, translations, errors, middle, to));
+		} else if (to > from) {
+			Fxml fxml = fxmls.get(from);
+			if (fxml != null) {
+				try {
+					// each document gets its own identifiers and controller
+					translations[from] = translator.translate(fxml, ctx.fork());
+				} catch (Exception e) {
+					errors[from] = e;
+				}
+			}
+		}
+	}
+
+}
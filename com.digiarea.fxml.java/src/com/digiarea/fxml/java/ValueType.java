@@ -0,0 +1,144 @@
+package com.digiarea.fxml.java;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.digiarea.fxml.Attribute;
+import com.digiarea.jse.Expression;
+import com.digiarea.jse.NodeFacade;
+
+public class ValueType {
+
+	private static final Map<String, ValueType> types = new HashMap<>();
+
+	static {
+		// Insets(double top, double right, double bottom, double left)
+		add(new ValueType("Insets", true).parameter("top",
+				PropertyIndex.DOUBLE, "0.0").parameter("right",
+				PropertyIndex.DOUBLE, "0.0").parameter("bottom",
+				PropertyIndex.DOUBLE, "0.0").parameter("left",
+				PropertyIndex.DOUBLE, "0.0"));
+		// Color(double red, double green, double blue, double opacity)
+		add(new ValueType("Color", true).parameter("red",
+				PropertyIndex.DOUBLE, "0.0").parameter("green",
+				PropertyIndex.DOUBLE, "0.0").parameter("blue",
+				PropertyIndex.DOUBLE, "0.0").parameter("opacity",
+				PropertyIndex.DOUBLE, "1.0"));
+		// Font(String name, double size)
+		add(new ValueType("Font", true).parameter("name",
+				PropertyIndex.STRING, null).parameter("size",
+				PropertyIndex.DOUBLE, "12.0"));
+		// CornerRadii(double radius, boolean asPercent)
+		add(new ValueType("CornerRadii", true).parameter("radius",
+				PropertyIndex.DOUBLE, "0.0").parameter("asPercent",
+				PropertyIndex.BOOLEAN, "false"));
+	}
+
+	private static void add(ValueType type) {
+		types.put(type.getName(), type);
+	}
+
+	public static ValueType getValueType(String name) {
+		return types.get(name);
+	}
+
+	private final String name;
+
+	private final boolean immutable;
+
+	private final List<String> parameters = new ArrayList<>();
+
+	private final List<String> kinds = new ArrayList<>();
+
+	private final List<String> defaults = new ArrayList<>();
+
+	public ValueType(String name, boolean immutable) {
+		super();
+		this.name = name;
+		this.immutable = immutable;
+	}
+
+	private ValueType parameter(String parameter, String kind,
+			String defaultValue) {
+		parameters.add(parameter);
+		kinds.add(kind);
+		defaults.add(defaultValue);
+		return this;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isImmutable() {
+		return immutable;
+	}
+
+	public boolean isMapped(List<Attribute> attributes) {
+		// attributes without a constructor parameter need the setter path
+		if (attributes != null) {
+			for (Attribute attribute : attributes) {
+				if (attribute != null
+						&& !parameters.contains(attribute.getName())) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	public List<String> getValues(List<Attribute> attributes) {
+		List<String> values = new ArrayList<>(parameters.size());
+		for (int i = 0; i < parameters.size(); i++) {
+			values.add(selectAttribute(attributes, parameters.get(i),
+					defaults.get(i)));
+		}
+		return values;
+	}
+
+	public boolean isConstant(List<String> values) {
+		for (String value : values) {
+			if (value != null
+					&& (value.startsWith("$") || value.startsWith("%") || value
+							.startsWith("@"))) {
+				return false;
+			}
+		}
+		return immutable;
+	}
+
+	public List<Expression> getArguments(List<String> values) {
+		List<Expression> arguments = new ArrayList<>(values.size());
+		for (int i = 0; i < values.size(); i++) {
+			String value = values.get(i);
+			String kind = kinds.get(i);
+			if (value == null) {
+				arguments.add(NodeFacade.NullLiteralExpr());
+			} else if (value.startsWith("$")) {
+				arguments.add(NodeFacade.NameExpr(value.substring(1)));
+			} else if (PropertyIndex.DOUBLE.equals(kind)) {
+				arguments.add(NodeFacade.DoubleLiteralExpr(value));
+			} else if (PropertyIndex.STRING.equals(kind)) {
+				arguments.add(NodeFacade.StringLiteralExpr(value));
+			} else {
+				arguments.add(NodeFacade.NameExpr(value));
+			}
+		}
+		return arguments;
+	}
+
+	private String selectAttribute(List<Attribute> attributes, String name,
+			String value) {
+		if (attributes != null) {
+			for (Attribute attribute : attributes) {
+				if (attribute != null && attribute.getName().equals(name)) {
+					return attribute.getValue();
+				}
+			}
+		}
+		return value;
+	}
+
+}